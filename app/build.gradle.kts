@@ -16,6 +16,17 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room writes each schema version here; the migration tests read them back
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
+    }
+
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
     }
 
     buildTypes {
@@ -37,6 +48,10 @@ android {
     buildFeatures {
         compose = true
     }
+    testOptions {
+        // Local unit tests construct PackageInfo and reach android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -50,6 +65,7 @@ dependencies {
     val room_version = "2.5.2" // Kotlin syntax for variable
     implementation("androidx.room:room-runtime:$room_version")
     annotationProcessor("androidx.room:room-compiler:$room_version")
+    androidTestImplementation("androidx.room:room-testing:$room_version")
     implementation("androidx.work:work-runtime:2.8.1") // Or the latest version
     // Lifecycle components (ViewModel & LiveData)
     implementation("androidx.lifecycle:lifecycle-viewmodel:2.6.2") // Use latest stable version
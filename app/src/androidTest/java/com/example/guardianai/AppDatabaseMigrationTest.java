@@ -0,0 +1,129 @@
+package com.example.guardianai;
+
+import android.database.Cursor;
+
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the AppDatabase migrations on databases created from the exported schemas in
+ * app/schemas, validates the result against the target schema and checks the data survives.
+ * The latest schema (9.json) is written by the Room annotation processor on build.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public final MigrationTestHelper helper =
+            new MigrationTestHelper(InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void eachStepFrom2To6() throws IOException {
+        Migration[] steps = {AppDatabase.MIGRATION_2_3, AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5,
+                AppDatabase.MIGRATION_5_6};
+        for (Migration step : steps) {
+            String name = TEST_DB + "-" + step.startVersion;
+            helper.createDatabase(name, step.startVersion).close();
+            helper.runMigrationsAndValidate(name, step.endVersion, true, step).close();
+        }
+    }
+
+    @Test
+    public void migrate2To6_keepsData() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        db.execSQL("INSERT INTO app_permissions (packageName, permissionsList) VALUES "
+                + "('com.example.a', 'android.permission.CAMERA,android.permission.INTERNET'), ('com.example.b', '')");
+        db.execSQL("INSERT INTO sensor_logs (timestamp, package_name, app_name, sensor_type, is_alert) VALUES "
+                + "(1000, 'com.example.a', 'A', 'CAMERA', 1), (2000, 'com.example.b', 'B', 'MICROPHONE', 0)");
+        db.execSQL("INSERT INTO recommendations (title, description, type, associatedPackageName, timestamp) "
+                + "VALUES ('t', 'd', 'UNUSED_APP', 'com.example.a', 3000)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 6, true, AppDatabase.MIGRATION_2_3,
+                AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5, AppDatabase.MIGRATION_5_6);
+
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM sensor_logs"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM recommendations"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sensor_sessions"));
+        // Fingerprints reset to 0 so the next scan rewrites every app
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM app_permissions WHERE fingerprint = 0"));
+        // permissionsList was split into the dictionary and the join table
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM permissions"));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM app_permission ap JOIN permissions p ON p.id = ap.permission_id "
+                + "WHERE ap.package_name = 'com.example.a' "
+                + "AND p.name IN ('android.permission.CAMERA', 'android.permission.INTERNET')"));
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM app_permission WHERE package_name = 'com.example.b'"));
+        db.close();
+    }
+
+    @Test
+    public void migrate7To8_movesNamesIntoApps() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7);
+        db.execSQL("INSERT INTO sensor_logs (timestamp, package_name, app_name, sensor_type, is_alert) VALUES "
+                + "(1000, 'com.example.a', 'A', 'CAMERA', 1), (2000, NULL, NULL, 'LOCATION', 0)");
+        db.execSQL("INSERT INTO sensor_sessions (package_name, app_name, sensor_type, start_time, end_time, "
+                + "duration_ms, access_count, is_open) VALUES ('com.example.a', 'A', 'CAMERA', 1000, 2000, 1000, 2, 0)");
+        db.execSQL("INSERT INTO recommendations (title, description, type, associatedPackageName, timestamp) VALUES "
+                + "('t', 'd', 'UNUSED_APP', 'com.example.b', 3000), ('t', 'd', 'HIGH_RISK_SUMMARY', NULL, 3000)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 8, true, AppDatabase.MIGRATION_7_8);
+
+        // One row per package; NULL packages become ''
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM apps"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM apps WHERE package_name = 'com.example.a' AND app_name = 'A'"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM sensor_logs l JOIN apps a ON a.id = l.app_id "
+                + "WHERE a.package_name = 'com.example.a' AND l.timestamp = 1000 AND l.is_alert = 1"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM sensor_logs l JOIN apps a ON a.id = l.app_id "
+                + "WHERE a.package_name = '' AND l.timestamp = 2000"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM sensor_sessions s JOIN apps a ON a.id = s.app_id "
+                + "WHERE a.package_name = 'com.example.a' AND s.access_count = 2"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM recommendations r JOIN apps a ON a.id = r.associated_app_id "
+                + "WHERE a.package_name = 'com.example.b'"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM recommendations WHERE associated_app_id IS NULL"));
+
+        // The migrated dictionary is what AppDirectory loads on open
+        AppDirectory directory = new AppDirectory(() -> null);
+        directory.preload(db);
+        int appId = count(db, "SELECT id FROM apps WHERE package_name = 'com.example.a'");
+        assertEquals("com.example.a", directory.packageOf(appId));
+        assertEquals("A", directory.labelOf(appId));
+        db.close();
+    }
+
+    @Test
+    public void migrate8To9_dropsRiskLevelKeepsGrants() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        db.execSQL("INSERT INTO permissions (id, name) VALUES (1, 'android.permission.CAMERA'), (2, 'android.permission.INTERNET')");
+        db.execSQL("INSERT INTO app_permission (package_name, permission_id, granted, risk_level) VALUES "
+                + "('com.example.a', 1, 1, 3), ('com.example.a', 2, 0, 1), ('com.example.b', 2, 1, 1)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 9, true, AppDatabase.MIGRATION_8_9);
+
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM app_permission"));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM app_permission WHERE granted = 1"));
+        assertEquals(1, count(db, "SELECT granted FROM app_permission WHERE package_name = 'com.example.a' AND permission_id = 1"));
+        db.close();
+    }
+
+    private static int count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.guardianai;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/** AppDirectory against an in-memory AppDatabase: id assignment, relabeling and resolve*. */
+@RunWith(AndroidJUnit4.class)
+public class AppDirectoryTest {
+
+    private AppDatabase database;
+    private AppDirectory directory;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        directory = new AppDirectory(() -> database);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void idFor_isStablePerPackage() {
+        int a = directory.idFor("com.example.a", "A");
+        int b = directory.idFor("com.example.b", "B");
+        assertNotEquals(a, b);
+        assertEquals(a, directory.idFor("com.example.a", "A"));
+        assertEquals(a, directory.idFor("com.example.a", null));
+        assertEquals(directory.idFor(null, null), directory.idFor("", null)); // null is stored as ""
+        assertEquals(3, database.appIdentityDao().getAllApps().size());
+    }
+
+    @Test
+    public void idFor_relabelsInMemoryAndOnDisk() {
+        int id = directory.idFor("com.example.a", "Old");
+        directory.idFor("com.example.a", "New");
+        directory.idFor("com.example.a", null); // a missing label keeps the known one
+        assertEquals("New", directory.labelOf(id));
+        assertEquals("New", database.appIdentityDao().getAllApps().get(0).appName);
+    }
+
+    @Test
+    public void idFor_concurrentCallersShareOneRow() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 16; i++) calls.add(() -> directory.idFor("com.example.a", "A"));
+            List<Future<Integer>> ids = executor.invokeAll(calls);
+            int first = ids.get(0).get();
+            for (Future<Integer> id : ids) assertEquals(first, (int) id.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, database.appIdentityDao().getAllApps().size());
+    }
+
+    @Test
+    public void preload_restoresTheDictionary() {
+        int id = directory.idFor("com.example.a", "A");
+        AppDirectory reopened = new AppDirectory(() -> database);
+        reopened.preload(database.getOpenHelper().getWritableDatabase());
+        assertEquals("com.example.a", reopened.packageOf(id));
+        assertEquals("A", reopened.labelOf(id));
+        assertEquals(id, reopened.idFor("com.example.a", "A"));
+    }
+
+    @Test
+    public void resolve_fillsNamesAndSkipsUnknownIds() {
+        int id = directory.idFor("com.example.a", "A");
+
+        SensorLogEntry log = new SensorLogEntry(1000L, id, "CAMERA", false);
+        SensorLogEntry unknownLog = new SensorLogEntry(1000L, id + 100, "CAMERA", false);
+        directory.resolveLogs(Arrays.asList(log, unknownLog));
+        assertEquals("com.example.a", log.packageName);
+        assertEquals("A", log.appName);
+        assertNull(unknownLog.packageName);
+
+        SensorSession session = new SensorSession(id, "MICROPHONE", 1000L, 2000L, 1000L, 1, false);
+        directory.resolveSessions(Collections.singletonList(session));
+        assertEquals("com.example.a", session.packageName);
+        assertEquals("A", session.appName);
+
+        Recommendation withApp = new Recommendation("t", "d", "UNUSED_APP", id, 0L);
+        Recommendation withoutApp = new Recommendation("t", "d", "HIGH_RISK_SUMMARY", (Integer) null, 0L);
+        directory.resolveRecommendations(Arrays.asList(withApp, withoutApp));
+        assertEquals("com.example.a", withApp.associatedPackageName);
+        assertNull(withoutApp.associatedPackageName);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Scans the installed apps at every parallelism level from 1 to ScanPool.MAX_THREADS and checks
+ * each snapshot matches the sequential one. Per-level scan times go to logcat (tag
+ * PermissionScanParallelismTest). Also checks ScanPool cancels the submitted chunks when the
+ * caller's own chunk fails.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PermissionScanParallelismTest {
+
+    private static final String TAG = "PermissionScanParallelismTest";
+
+    private PermissionScanEngine engine;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        engine = new PermissionScanEngine(context, 1);
+        engine.scan(); // warm-up: package index, rules, interned ids
+    }
+
+    @Test
+    public void snapshotIdenticalAtEveryParallelism() {
+        ScanSnapshot sequential = engine.scan();
+        long sequentialMs = 0;
+        for (int p = 1; p <= ScanPool.MAX_THREADS; p++) {
+            engine.setParallelism(p);
+            long start = SystemClock.elapsedRealtimeNanos();
+            ScanSnapshot snapshot = engine.scan();
+            long elapsedMs = (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000L;
+            if (p == 1) sequentialMs = elapsedMs;
+            Log.i(TAG, "parallelism " + p + ": " + snapshot.getTotalAppCount() + " apps in " + elapsedMs
+                    + " ms (sequential " + sequentialMs + " ms)");
+            assertSameSnapshot("parallelism " + p, sequential, snapshot);
+        }
+    }
+
+    @Test
+    public void failingCallerChunkCancelsSubmittedChunks() throws InterruptedException {
+        assumeTrue("needs at least two scan threads", ScanPool.MAX_THREADS >= 2);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < ScanPool.MIN_CHUNK_SIZE * 2; i++) items.add(i);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try {
+            ScanPool.forEachChunk(items, 2, chunk -> {
+                if (chunk.get(0) == 0) throw new IllegalStateException("caller chunk failed");
+                try {
+                    Thread.sleep(30_000L); // only ends early if the future is cancelled
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            fail("caller chunk exception was swallowed");
+        } catch (IllegalStateException expected) {
+            assertEquals("caller chunk failed", expected.getMessage());
+        }
+        assertTrue("submitted chunk was not cancelled", interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void assertSameSnapshot(String label, ScanSnapshot expected, ScanSnapshot actual) {
+        assertEquals(label, expected.getTotalAppCount(), actual.getTotalAppCount());
+        Set<String> permissions = new TreeSet<>();
+        for (int i = 0; i < expected.getTotalAppCount(); i++) {
+            ScanSnapshot.AppEntry want = expected.getApps().get(i);
+            ScanSnapshot.AppEntry got = actual.getApps().get(i);
+            assertEquals(label, want.getPackageName(), got.getPackageName());
+            assertEquals(label, want.getRiskLevel(), got.getRiskLevel());
+            assertEquals(label, want.getGrantedPermissions(), got.getGrantedPermissions());
+            assertEquals(label, want.getRequestedPermissions(), got.getRequestedPermissions());
+            permissions.addAll(want.getGrantedPermissions());
+        }
+        assertEquals(label, expected.getAppsByRisk(), actual.getAppsByRisk());
+        for (String permission : permissions) {
+            assertEquals(label + " / " + permission,
+                    expected.getAppsWithPermission(permission), actual.getAppsWithPermission(permission));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every SensorLogDao query and checks that sensor_logs is read
+ * through an index (never a full table scan), and that the ordered reads need no temp b-tree.
+ * The SQL is copied from the @Query annotations (not readable at runtime); keep it in sync.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SensorLogDaoQueryPlanTest {
+
+    private AppDatabase database;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        db = database.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void getNewestPage() {
+        List<String> plan = plan("SELECT * FROM sensor_logs ORDER BY timestamp DESC, id DESC LIMIT ?", 50);
+        assertUsesIndex(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    public void getPageBefore() {
+        List<String> plan = plan("SELECT * FROM sensor_logs WHERE timestamp <= ? AND (timestamp < ? OR id < ?) "
+                + "ORDER BY timestamp DESC, id DESC LIMIT ?", 1000L, 1000L, 10, 50);
+        assertUsesIndex(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    public void getPageAfter() {
+        List<String> plan = plan("SELECT * FROM sensor_logs WHERE timestamp >= ? AND (timestamp > ? OR id > ?) "
+                + "ORDER BY timestamp ASC, id ASC LIMIT ?", 1000L, 1000L, 10, 50);
+        assertUsesIndex(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    public void exists() {
+        assertUsesIndex(plan("SELECT EXISTS(SELECT 1 FROM sensor_logs WHERE id = ?)", 10));
+    }
+
+    @Test
+    public void getLogsBySensor() {
+        List<String> plan = plan("SELECT * FROM sensor_logs WHERE sensor_type = ? ORDER BY timestamp DESC", "CAMERA");
+        assertUsesIndex(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    public void getRecentLogs() {
+        List<String> plan = plan("SELECT * FROM sensor_logs ORDER BY timestamp DESC LIMIT ?", 100);
+        assertUsesIndex(plan);
+        assertNoSort(plan);
+    }
+
+    @Test
+    public void getAlertSummariesSince() {
+        // The GROUP BY sorts the (few) grouped rows; only the sensor_logs access is checked
+        assertUsesIndex(plan("SELECT a.package_name AS packageName, a.app_name AS appName, g.sensorType, g.alertCount, g.lastTimestamp "
+                + "FROM (SELECT app_id, sensor_type AS sensorType, COUNT(*) AS alertCount, MAX(timestamp) AS lastTimestamp "
+                + "FROM sensor_logs WHERE timestamp > ? AND is_alert = 1 "
+                + "GROUP BY app_id, sensor_type ORDER BY lastTimestamp DESC LIMIT ?) g "
+                + "JOIN apps a ON a.id = g.app_id ORDER BY g.lastTimestamp DESC", 1000L, 20));
+    }
+
+    @Test
+    public void deleteOldLogs() {
+        assertUsesIndex(plan("DELETE FROM sensor_logs WHERE timestamp < ?", 1000L));
+    }
+
+    // --- Helpers ---
+    private List<String> plan(String sql, Object... args) {
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) details.add(cursor.getString(detail));
+        }
+        return details;
+    }
+
+    /** Every step that reads sensor_logs goes through an index or the rowid. */
+    private static void assertUsesIndex(List<String> plan) {
+        boolean readsLogs = false;
+        for (String step : plan) {
+            if (!step.matches(".*\\b(SCAN|SEARCH)( TABLE)? sensor_logs\\b.*")) continue;
+            readsLogs = true;
+            assertTrue("Full scan in " + plan, step.contains(" USING "));
+        }
+        assertTrue("sensor_logs not in " + plan, readsLogs);
+    }
+
+    private static void assertNoSort(List<String> plan) {
+        for (String step : plan) {
+            assertFalse("Sort step in " + plan, step.contains("TEMP B-TREE"));
+        }
+    }
+}
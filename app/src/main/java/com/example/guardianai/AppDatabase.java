@@ -1,30 +1,183 @@
 package com.example.guardianai;
 
-import com.example.guardianai.RecommendationDao;
 import android.content.Context;
-import androidx.room.Database;
-import androidx.room.Room;
-import androidx.room.RoomDatabase;
 import android.util.Log;
 
-
-import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
-import android.util.Log;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
 // (No need to explicitly import RecommendationDao or SensorLogDao if they are in the same package)
 // Add Recommendation.class to the entities list and increment version to 2
-@Database(entities = {AppPermissions.class, Recommendation.class, SensorLogEntry.class}, version = 2, exportSchema = false)
+// Version 3 adds the sensor_sessions table (SensorSession)
+// Version 4 adds app_permissions.fingerprint
+// Version 5 normalizes permissions: permissions dictionary + app_permission join table
+// Version 6 indexes sensor_logs by timestamp, (sensor_type, timestamp) and (package_name, timestamp)
+// Version 7 adds the sensor_log_hourly / sensor_log_daily roll-up tables
+// Version 8 adds the apps dictionary; sensor_logs, sensor_sessions and recommendations refer to it by id
+// Version 9 drops app_permission.risk_level (never read, and stale once the rules change)
+@Database(entities = {AppPermissions.class, Recommendation.class, SensorLogEntry.class, SensorSession.class,
+        PermissionDefinition.class, AppPermissionGrant.class, SensorLogHourly.class, SensorLogDaily.class,
+        AppIdentity.class},
+        version = 9, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
 
     // Abstract methods to get the DAOs for each table
     public abstract AppPermissionsDao appPermissionsDao();
     public abstract RecommendationDao recommendationDao(); // Added this line
     public abstract SensorLogDao sensorLogDao();
+    public abstract SensorSessionDao sensorSessionDao();
+    public abstract SensorHistoryDao sensorHistoryDao();
+    public abstract AppIdentityDao appIdentityDao();
     // Singleton pattern to prevent multiple instances of the database opening at the same time.
     private static volatile AppDatabase INSTANCE;
 
+    // --- Migrations (SQL matches what Room generates for the entities) ---
+    // AppDatabaseMigrationTest checks them against the exported schemas in app/schemas.
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sensor_sessions` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`package_name` TEXT, `app_name` TEXT, `sensor_type` TEXT, `start_time` INTEGER NOT NULL, "
+                    + "`end_time` INTEGER NOT NULL, `duration_ms` INTEGER NOT NULL, `access_count` INTEGER NOT NULL, "
+                    + "`is_open` INTEGER NOT NULL)");
+        }
+    };
+
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // 0 never matches a real fingerprint, so every app is rewritten on the next scan
+            db.execSQL("ALTER TABLE `app_permissions` ADD COLUMN `fingerprint` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        // Splits app_permissions.permissionsList ("a,b,c") into one row per permission
+        private static final String SPLIT = "WITH RECURSIVE split(pkg, name, rest) AS ("
+                + "SELECT packageName, '', permissionsList || ',' FROM app_permissions "
+                + "WHERE permissionsList IS NOT NULL AND permissionsList != '' "
+                + "UNION ALL SELECT pkg, substr(rest, 1, instr(rest, ',') - 1), substr(rest, instr(rest, ',') + 1) "
+                + "FROM split WHERE rest != '') ";
+
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `permissions` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_permissions_name` ON `permissions` (`name`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `app_permission` (`package_name` TEXT NOT NULL, `permission_id` INTEGER NOT NULL, "
+                    + "`granted` INTEGER NOT NULL, `risk_level` INTEGER NOT NULL, PRIMARY KEY(`package_name`, `permission_id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_app_permission_permission_id_granted` ON `app_permission` (`permission_id`, `granted`)");
+
+            // Keep the requested permissions so update diffs still have a baseline; grant state and
+            // risk are unknown here and get filled in by the next scan (fingerprints are reset to 0)
+            db.execSQL(SPLIT + "INSERT OR IGNORE INTO permissions (name) SELECT DISTINCT name FROM split WHERE name != ''");
+            db.execSQL(SPLIT + "INSERT OR IGNORE INTO app_permission (package_name, permission_id, granted, risk_level) "
+                    + "SELECT s.pkg, p.id, 0, 0 FROM split s JOIN permissions p ON p.name = s.name");
+
+            // Drop the permissionsList column (table rebuild; DROP COLUMN needs SQLite 3.35)
+            db.execSQL("CREATE TABLE `app_permissions_new` (`packageName` TEXT NOT NULL, `fingerprint` INTEGER NOT NULL, PRIMARY KEY(`packageName`))");
+            db.execSQL("INSERT INTO `app_permissions_new` (packageName, fingerprint) SELECT packageName, 0 FROM `app_permissions`");
+            db.execSQL("DROP TABLE `app_permissions`");
+            db.execSQL("ALTER TABLE `app_permissions_new` RENAME TO `app_permissions`");
+        }
+    };
+
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_timestamp` ON `sensor_logs` (`timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_sensor_type_timestamp` ON `sensor_logs` (`sensor_type`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_package_name_timestamp` ON `sensor_logs` (`package_name`, `timestamp`)");
+        }
+    };
+
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sensor_log_hourly` (`hour_start` INTEGER NOT NULL, `package_name` TEXT NOT NULL, "
+                    + "`sensor_type` TEXT NOT NULL, `is_alert` INTEGER NOT NULL, `app_name` TEXT, `event_count` INTEGER NOT NULL, "
+                    + "`first_timestamp` INTEGER NOT NULL, `last_timestamp` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`hour_start`, `package_name`, `sensor_type`, `is_alert`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_log_hourly_package_name_hour_start` ON `sensor_log_hourly` (`package_name`, `hour_start`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sensor_log_daily` (`day_start` INTEGER NOT NULL, `package_name` TEXT NOT NULL, "
+                    + "`sensor_type` TEXT NOT NULL, `is_alert` INTEGER NOT NULL, `app_name` TEXT, `event_count` INTEGER NOT NULL, "
+                    + "`first_timestamp` INTEGER NOT NULL, `last_timestamp` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`day_start`, `package_name`, `sensor_type`, `is_alert`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_log_daily_package_name_day_start` ON `sensor_log_daily` (`package_name`, `day_start`)");
+        }
+    };
+
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        private static final String APP_FK = "FOREIGN KEY(`%s`) REFERENCES `apps`(`id`) ON UPDATE NO ACTION ON DELETE NO ACTION";
+
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `apps` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`package_name` TEXT NOT NULL, `app_name` TEXT)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_apps_package_name` ON `apps` (`package_name`)");
+            // NULL packages become '' so every log and session row gets an id
+            db.execSQL("INSERT OR IGNORE INTO apps (package_name, app_name) SELECT pkg, MAX(name) FROM ("
+                    + "SELECT COALESCE(package_name, '') AS pkg, app_name AS name FROM sensor_logs "
+                    + "UNION ALL SELECT COALESCE(package_name, ''), app_name FROM sensor_sessions "
+                    + "UNION ALL SELECT associatedPackageName, NULL FROM recommendations WHERE associatedPackageName IS NOT NULL"
+                    + ") GROUP BY pkg");
+
+            // Table rebuilds: the name columns are replaced by app ids (DROP COLUMN needs SQLite 3.35)
+            db.execSQL("CREATE TABLE `sensor_logs_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`timestamp` INTEGER NOT NULL, `app_id` INTEGER NOT NULL, `sensor_type` TEXT, `is_alert` INTEGER NOT NULL, "
+                    + String.format(APP_FK, "app_id") + ")");
+            db.execSQL("INSERT INTO `sensor_logs_new` (id, timestamp, app_id, sensor_type, is_alert) "
+                    + "SELECT l.id, l.timestamp, a.id, l.sensor_type, l.is_alert FROM sensor_logs l "
+                    + "JOIN apps a ON a.package_name = COALESCE(l.package_name, '')");
+            db.execSQL("DROP TABLE `sensor_logs`");
+            db.execSQL("ALTER TABLE `sensor_logs_new` RENAME TO `sensor_logs`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_timestamp` ON `sensor_logs` (`timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_sensor_type_timestamp` ON `sensor_logs` (`sensor_type`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_logs_app_id_timestamp` ON `sensor_logs` (`app_id`, `timestamp`)");
+
+            db.execSQL("CREATE TABLE `sensor_sessions_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`app_id` INTEGER NOT NULL, `sensor_type` TEXT, `start_time` INTEGER NOT NULL, "
+                    + "`end_time` INTEGER NOT NULL, `duration_ms` INTEGER NOT NULL, `access_count` INTEGER NOT NULL, "
+                    + "`is_open` INTEGER NOT NULL, " + String.format(APP_FK, "app_id") + ")");
+            db.execSQL("INSERT INTO `sensor_sessions_new` (id, app_id, sensor_type, start_time, end_time, duration_ms, access_count, is_open) "
+                    + "SELECT s.id, a.id, s.sensor_type, s.start_time, s.end_time, s.duration_ms, s.access_count, s.is_open "
+                    + "FROM sensor_sessions s JOIN apps a ON a.package_name = COALESCE(s.package_name, '')");
+            db.execSQL("DROP TABLE `sensor_sessions`");
+            db.execSQL("ALTER TABLE `sensor_sessions_new` RENAME TO `sensor_sessions`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sensor_sessions_app_id_start_time` ON `sensor_sessions` (`app_id`, `start_time`)");
+
+            db.execSQL("CREATE TABLE `recommendations_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`title` TEXT NOT NULL, `description` TEXT NOT NULL, `type` TEXT NOT NULL, "
+                    + "`associated_app_id` INTEGER, `timestamp` INTEGER NOT NULL, " + String.format(APP_FK, "associated_app_id") + ")");
+            db.execSQL("INSERT INTO `recommendations_new` (id, title, description, type, associated_app_id, timestamp) "
+                    + "SELECT r.id, r.title, r.description, r.type, a.id, r.timestamp FROM recommendations r "
+                    + "LEFT JOIN apps a ON a.package_name = r.associatedPackageName");
+            db.execSQL("DROP TABLE `recommendations`");
+            db.execSQL("ALTER TABLE `recommendations_new` RENAME TO `recommendations`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recommendations_associated_app_id` ON `recommendations` (`associated_app_id`)");
+        }
+    };
+
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Table rebuild (DROP COLUMN needs SQLite 3.35)
+            db.execSQL("CREATE TABLE `app_permission_new` (`package_name` TEXT NOT NULL, `permission_id` INTEGER NOT NULL, "
+                    + "`granted` INTEGER NOT NULL, PRIMARY KEY(`package_name`, `permission_id`))");
+            db.execSQL("INSERT INTO `app_permission_new` (package_name, permission_id, granted) "
+                    + "SELECT package_name, permission_id, granted FROM app_permission");
+            db.execSQL("DROP TABLE `app_permission`");
+            db.execSQL("ALTER TABLE `app_permission_new` RENAME TO `app_permission`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_app_permission_permission_id_granted` ON `app_permission` (`permission_id`, `granted`)");
+        }
+    };
+
+    static final Migration[] ALL_MIGRATIONS = {MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+            MIGRATION_7_8, MIGRATION_8_9};
+
     // Method to get the singleton database instance
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
@@ -35,11 +188,17 @@ public abstract class AppDatabase extends RoomDatabase {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     AppDatabase.class, "guardianai_database") // Name of the database file
                             // --- Migration Strategy ---
-                            // Since we changed the schema (added a table), we need a migration plan.
-                            // fallbackToDestructiveMigration() deletes the old database and creates
-                            // a new one. This is simple for development but ERASES ALL EXISTING DATA.
-                            // For a production app, you'd implement a proper migration path.
-                            .fallbackToDestructiveMigration()
+                            // Every released schema from version 2 on has a real migration, so upgrades
+                            // keep the sensor history. Only pre-release version 1 databases are recreated.
+                            .addMigrations(ALL_MIGRATIONS)
+                            .fallbackToDestructiveMigrationFrom(1)
+                            // Runs after any migration, so the app dictionary is cached before the first query
+                            .addCallback(new RoomDatabase.Callback() {
+                                @Override
+                                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                                    AppDirectory.getInstance(context).preload(db);
+                                }
+                            })
                             .build();
                     Log.d("AppDatabase", "Database instance created.");
                 }
@@ -47,4 +206,4 @@ public abstract class AppDatabase extends RoomDatabase {
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+}
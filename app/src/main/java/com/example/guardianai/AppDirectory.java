@@ -0,0 +1,161 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the apps dictionary: package name <-> integer id, plus the latest label.
+ *
+ * The table is read once when the database is opened (AppDatabase's open callback) and every
+ * new id is created through idFor(), so the resolve* methods never touch the database and are
+ * safe on the main thread. idFor() may insert or relabel a row; call it off the main thread.
+ *
+ * Readers only take the monitor, and only for in-memory lookups. idFor() does its database
+ * writes under a separate writeLock and takes the monitor just to publish the result, so a
+ * resolve* call never waits on I/O.
+ */
+public class AppDirectory {
+
+    private static final String TAG = "AppDirectory";
+
+    private static volatile AppDirectory INSTANCE;
+
+    public static AppDirectory getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (AppDirectory.class) {
+                if (INSTANCE == null) {
+                    Context appContext = context.getApplicationContext();
+                    INSTANCE = new AppDirectory(() -> AppDatabase.getDatabase(appContext));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private static class Entry {
+        final int id;
+        final String packageName;
+        String appName;
+
+        Entry(int id, String packageName, String appName) {
+            this.id = id;
+            this.packageName = packageName;
+            this.appName = appName;
+        }
+    }
+
+    // Supplied lazily: AppDatabase's open callback needs the directory before the database exists
+    private final Supplier<AppDatabase> database;
+    private final Object writeLock = new Object();                // serializes idFor() writes
+    private final Map<String, Entry> byPackage = new HashMap<>(); // guarded by this
+    private final SparseArray<Entry> byId = new SparseArray<>();  // guarded by this
+
+    // Package-private for tests (in-memory database); the app uses getInstance()
+    AppDirectory(Supplier<AppDatabase> database) {
+        this.database = database;
+    }
+
+    /** Loads the dictionary; called by AppDatabase whenever the database is opened. */
+    synchronized void preload(SupportSQLiteDatabase db) {
+        byPackage.clear();
+        byId.clear();
+        try (Cursor cursor = db.query("SELECT id, package_name, app_name FROM apps")) {
+            while (cursor.moveToNext()) {
+                put(new Entry(cursor.getInt(0), cursor.getString(1), cursor.getString(2)));
+            }
+        }
+        Log.d(TAG, "Loaded " + byId.size() + " apps.");
+    }
+
+    /**
+     * Returns the id of the package, adding it to the dictionary (or updating its label) first
+     * if needed. A null package is stored as "". Hits the database on a miss; not on the main thread.
+     */
+    public int idFor(String packageName, String appName) {
+        String pkg = packageName != null ? packageName : "";
+        synchronized (this) {
+            Entry entry = byPackage.get(pkg);
+            if (entry != null && (appName == null || appName.equals(entry.appName))) return entry.id;
+        }
+
+        AppDatabase db = database.get();
+        // Open outside both locks: opening runs preload(), which takes the monitor
+        db.getOpenHelper().getWritableDatabase();
+        AppIdentityDao dao = db.appIdentityDao();
+
+        synchronized (writeLock) {
+            Entry entry;
+            synchronized (this) {
+                entry = byPackage.get(pkg); // another writer may have published it meanwhile
+            }
+            if (entry == null) {
+                long rowId = dao.insertApp(new AppIdentity(pkg, appName)); // insert-or-ignore
+                Integer id = rowId > 0 ? Integer.valueOf((int) rowId) : dao.getAppId(pkg);
+                if (id == null) throw new IllegalStateException("No app id for " + pkg);
+                if (rowId <= 0 && appName != null) dao.updateAppName(id, appName);
+                synchronized (this) {
+                    entry = new Entry(id, pkg, appName);
+                    put(entry);
+                }
+            } else if (appName != null && !appName.equals(entry.appName)) {
+                dao.updateAppName(entry.id, appName);
+                synchronized (this) {
+                    entry.appName = appName;
+                }
+            }
+            return entry.id;
+        }
+    }
+
+    public synchronized String packageOf(int id) {
+        Entry entry = byId.get(id);
+        return entry != null ? entry.packageName : null;
+    }
+
+    public synchronized String labelOf(int id) {
+        Entry entry = byId.get(id);
+        return entry != null ? entry.appName : null;
+    }
+
+    // --- Filling the @Ignore name fields of rows read from the database ---
+    public synchronized void resolveLogs(List<SensorLogEntry> entries) {
+        for (SensorLogEntry row : entries) {
+            Entry entry = byId.get(row.appId);
+            if (entry == null) continue;
+            row.packageName = entry.packageName;
+            row.appName = entry.appName;
+        }
+    }
+
+    public synchronized void resolveSessions(List<SensorSession> sessions) {
+        for (SensorSession row : sessions) {
+            Entry entry = byId.get(row.appId);
+            if (entry == null) continue;
+            row.packageName = entry.packageName;
+            row.appName = entry.appName;
+        }
+    }
+
+    public synchronized void resolveRecommendations(List<Recommendation> recommendations) {
+        for (Recommendation row : recommendations) {
+            if (row.associatedAppId == null) continue;
+            Entry entry = byId.get(row.associatedAppId);
+            if (entry != null) row.associatedPackageName = entry.packageName;
+        }
+    }
+
+    // --- Internal ---
+    private void put(Entry entry) {
+        byPackage.put(entry.packageName, entry);
+        byId.put(entry.id, entry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.guardianai;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Dictionary of apps seen by the monitor; sensor_logs, sensor_sessions and recommendations
+ * refer to them by integer id instead of repeating the package name and label on every row.
+ */
+@Entity(tableName = "apps", indices = {@Index(value = "package_name", unique = true)})
+public class AppIdentity {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    @NonNull
+    @ColumnInfo(name = "package_name")
+    public String packageName;
+
+    @ColumnInfo(name = "app_name")
+    public String appName; // Latest known label
+
+    public AppIdentity(@NonNull String packageName, String appName) {
+        this.packageName = packageName;
+        this.appName = appName;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.guardianai;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/** The apps dictionary; used through AppDirectory, which keeps it cached in memory. */
+@Dao
+public interface AppIdentityDao {
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertApp(AppIdentity app); // -1 if the package already exists
+
+    @Query("SELECT * FROM apps")
+    List<AppIdentity> getAllApps();
+
+    @Query("SELECT id FROM apps WHERE package_name = :packageName")
+    Integer getAppId(String packageName);
+
+    @Query("UPDATE apps SET app_name = :appName WHERE id = :id")
+    int updateAppName(int id, String appName);
+}
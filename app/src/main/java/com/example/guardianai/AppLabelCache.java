@@ -0,0 +1,146 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of user-visible app labels.
+ *
+ * Entries are keyed by (package, lastUpdateTime): the version is taken from PackageIndex when
+ * it is loaded, so an app update invalidates its label without an extra PackageManager call.
+ * AppUpdateReceiver also invalidates explicitly, and the whole cache is dropped when the
+ * locale changes. Labels of packages that cannot be found fall back to the package name.
+ */
+public class AppLabelCache {
+
+    private static final String TAG = "AppLabelCache";
+    private static final int MAX_ENTRIES = 256;
+
+    private static volatile AppLabelCache INSTANCE;
+
+    public static AppLabelCache getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (AppLabelCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppLabelCache(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private static class Entry {
+        final String label;
+        final long lastUpdateTime; // -1 if unknown
+
+        Entry(String label, long lastUpdateTime) {
+            this.label = label;
+            this.lastUpdateTime = lastUpdateTime;
+        }
+    }
+
+    private final Context appContext;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private String cachedLocale; // guarded by this
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private AppLabelCache(Context appContext) {
+        this.appContext = appContext;
+        this.cachedLocale = currentLocale();
+    }
+
+    /** Label for a package name; uses PackageIndex for the version when it is loaded. */
+    public String getLabel(String packageName) {
+        if (packageName == null || packageName.isEmpty()) return packageName;
+        PackageIndex index = PackageIndex.getInstance(appContext);
+        PackageInfo info = index.isLoaded() ? index.getSnapshot().get(packageName) : null;
+        if (info != null) return getLabel(info);
+
+        Entry cached = lookup(packageName, -1L);
+        if (cached != null) return cached.label;
+
+        PackageManager pm = appContext.getPackageManager();
+        String label;
+        try {
+            ApplicationInfo ai = pm.getApplicationInfo(packageName, 0);
+            label = pm.getApplicationLabel(ai).toString();
+        } catch (PackageManager.NameNotFoundException e) {
+            return packageName; // not installed (any more); don't cache
+        }
+        store(packageName, new Entry(label, -1L));
+        return label;
+    }
+
+    /** Label for a PackageInfo the caller already has (no getApplicationInfo call). */
+    public String getLabel(PackageInfo info) {
+        String packageName = info.packageName;
+        Entry cached = lookup(packageName, info.lastUpdateTime);
+        if (cached != null) return cached.label;
+        if (info.applicationInfo == null) return packageName;
+
+        String label = info.applicationInfo.loadLabel(appContext.getPackageManager()).toString();
+        store(packageName, new Entry(label, info.lastUpdateTime));
+        return label;
+    }
+
+    public synchronized void invalidate(String packageName) {
+        entries.remove(packageName);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return "hits=" + hits.get() + ", misses=" + misses.get() + ", size=" + size;
+    }
+
+    // --- Internal ---
+    // version -1 accepts any cached entry (caller has no version to compare)
+    private Entry lookup(String packageName, long version) {
+        synchronized (this) {
+            String locale = currentLocale();
+            if (!locale.equals(cachedLocale)) {
+                Log.d(TAG, "Locale changed to " + locale + "; dropping " + entries.size() + " labels.");
+                entries.clear();
+                cachedLocale = locale;
+            }
+            Entry entry = entries.get(packageName);
+            if (entry != null && (version == -1L || entry.lastUpdateTime == version)) {
+                hits.incrementAndGet();
+                return entry;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private synchronized void store(String packageName, Entry entry) {
+        entries.put(packageName, entry);
+    }
+
+    private String currentLocale() {
+        return appContext.getResources().getConfiguration().getLocales().toLanguageTags();
+    }
+}
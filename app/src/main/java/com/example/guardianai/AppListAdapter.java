@@ -28,7 +28,6 @@ public class AppListAdapter extends RecyclerView.Adapter<AppListAdapter.ViewHold
     private List<String> packageNames;
     private Context context;
     private PackageManager packageManager;
-    private PermissionAnalyzer analyzer; // To check permission risk
     private PermissionAnalyzer.RiskLevel filterRiskLevel; // Which risk level are we showing?
 
     // Keep track of selected items using their package names
@@ -50,7 +49,6 @@ public class AppListAdapter extends RecyclerView.Adapter<AppListAdapter.ViewHold
         this.selectionListener = listener;
         if (context != null) {
             this.packageManager = context.getPackageManager();
-            this.analyzer = new PermissionAnalyzer(); // Initialize analyzer
         } else {
             Log.e(TAG, "Context is null in constructor!");
         }
@@ -67,7 +65,7 @@ public class AppListAdapter extends RecyclerView.Adapter<AppListAdapter.ViewHold
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // Safety check
-        if (packageManager == null || analyzer == null || packageNames == null || position >= packageNames.size()) {
+        if (packageManager == null || packageNames == null || position >= packageNames.size()) {
             Log.e(TAG, "Adapter component is null or position is out of bounds in onBindViewHolder.");
             return;
         }
@@ -91,7 +89,7 @@ public class AppListAdapter extends RecyclerView.Adapter<AppListAdapter.ViewHold
             holder.checkBox.setChecked(isSelected);
 
             // --- Show Relevant Permissions ---
-            List<String> riskyPermissions = getRelevantPermissions(pkgInfo.requestedPermissions);
+            List<String> riskyPermissions = getRelevantPermissions(pkgInfo);
             if (!riskyPermissions.isEmpty()) {
                 // Join the permission names with commas and set the text
                 holder.permissionsText.setText("Permissions: " + String.join(", ", riskyPermissions));
@@ -152,15 +150,19 @@ public class AppListAdapter extends RecyclerView.Adapter<AppListAdapter.ViewHold
     }
 
     // Helper to get only High/Medium risk permissions for display
-    private List<String> getRelevantPermissions(String[] allPermissions) {
+    // Ids are interned once per package version, so rebinding a row does no string lookups
+    private List<String> getRelevantPermissions(PackageInfo pkgInfo) {
         List<String> relevant = new ArrayList<>();
-        if (allPermissions == null || analyzer == null) return relevant;
+        String[] allPermissions = pkgInfo.requestedPermissions;
+        if (allPermissions == null) return relevant;
 
-        for (String perm : allPermissions) {
-            PermissionAnalyzer.RiskLevel risk = analyzer.getPermissionRisk(perm);
+        CompiledRiskModel model = CompiledRiskModel.getDefault();
+        int[] ids = model.requestedIds(pkgInfo.packageName, pkgInfo.lastUpdateTime, allPermissions);
+        for (int i = 0; i < ids.length; i++) {
+            PermissionAnalyzer.RiskLevel risk = model.riskOf(ids[i]);
             // --- Only add HIGH or MEDIUM risk permissions to the display list ---
             if (risk == PermissionAnalyzer.RiskLevel.HIGH || risk == PermissionAnalyzer.RiskLevel.MEDIUM) {
-                relevant.add(formatPermissionName(perm)); // Add the formatted (short) name
+                relevant.add(formatPermissionName(allPermissions[i])); // Add the formatted (short) name
             }
         }
 
@@ -235,13 +235,8 @@ public class AppListFragment extends Fragment implements AppListAdapter.OnSelect
         if (context == null || packageName == null || packageName.isEmpty()) {
             return packageName != null ? packageName : "Unknown App"; // Fallback
         }
-        PackageManager pm = context.getPackageManager();
         try {
-            ApplicationInfo appInfo = pm.getApplicationInfo(packageName, 0);
-            return appInfo.loadLabel(pm).toString();
-        } catch (PackageManager.NameNotFoundException e) {
-            Log.w(TAG, "App name not found for package: " + packageName);
-            return packageName; // Fallback to package name
+            return AppLabelCache.getInstance(context).getLabel(packageName); // falls back to the package name
         } catch (Exception e) {
             Log.e(TAG, "Error getting app name for: " + packageName, e);
             return packageName; // Fallback
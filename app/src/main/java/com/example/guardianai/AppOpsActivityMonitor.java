@@ -0,0 +1,189 @@
+package com.example.guardianai;
+
+import android.annotation.SuppressLint;
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Event-driven AppOps detection engine.
+ *
+ * On Android 11+ this registers an OnOpActiveChangedListener for the camera, microphone and
+ * location-monitoring ops, so sensor access is reported the moment an app starts (or stops)
+ * using the hardware instead of being discovered by the next poll.
+ *
+ * The platform only delivers other apps' op changes to holders of WATCH_APPOPS, which is a
+ * signature|privileged permission: this engine is for privileged or system builds only. On a
+ * normal install isAvailable() is false, MonitoringService does not create the monitor and
+ * its regular AppOps poll is the detection path. Where it is available, the poll is only
+ * needed as a low-frequency reconciliation pass (see getReconcileIntervalMs()).
+ *
+ * Only the ops of sensors enabled in the current MonitoringConfig are watched; see
+ * applyConfig().
+ */
+public class AppOpsActivityMonitor {
+
+    private static final String TAG = "AppOpsActivityMonitor";
+    private static final String PERMISSION_WATCH_APPOPS = "android.permission.WATCH_APPOPS";
+    public static final long DEFAULT_RECONCILE_INTERVAL_MS = 5 * 60_000L; // 5 min
+
+    // Receives each active/inactive transition for a watched op
+    public interface Listener {
+        void onSensorActiveChanged(String packageName, int uid, String sensorType, boolean active);
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+    private Object activeListener; // AppOpsManager.OnOpActiveChangedListener (API 29+)
+    private volatile boolean watching = false;
+    private volatile long reconcileIntervalMs = DEFAULT_RECONCILE_INTERVAL_MS;
+    private String[] ops = watchedOps();
+
+    /** True if the running build holds WATCH_APPOPS and the platform has startWatchingActive (API 30+). */
+    public static boolean isAvailable(Context context) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                && context.checkSelfPermission(PERMISSION_WATCH_APPOPS) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    public AppOpsActivityMonitor(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching the sensor ops. Safe to call repeatedly.
+     * @return true if op changes for other apps will be delivered.
+     */
+    @SuppressLint("NewApi")
+    public synchronized boolean start() {
+        if (watching) return true;
+        if (ops.length == 0) {
+            Log.d(TAG, "No sensor ops enabled; not watching.");
+            return false;
+        }
+        if (!isAvailable(context)) {
+            Log.w(TAG, "WATCH_APPOPS not granted or API " + Build.VERSION.SDK_INT + " too old; falling back to polling.");
+            return false;
+        }
+        AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+        if (appOps == null) return false;
+
+        AppOpsManager.OnOpActiveChangedListener opListener = (op, uid, packageName, active) -> {
+            String sensorType = sensorTypeForOp(op);
+            if (sensorType == null || packageName == null) return;
+            try {
+                listener.onSensorActiveChanged(packageName, uid, sensorType, active);
+            } catch (Exception e) {
+                Log.w(TAG, "Listener failed for " + op + " / " + packageName, e);
+            }
+        };
+
+        try {
+            appOps.startWatchingActive(ops, callbackExecutor, opListener);
+            activeListener = opListener;
+            watching = true;
+            Log.d(TAG, "Watching active AppOps: " + Arrays.toString(ops));
+        } catch (SecurityException se) {
+            Log.w(TAG, "Not allowed to watch AppOps; falling back to polling.", se);
+        } catch (Exception e) {
+            Log.e(TAG, "startWatchingActive failed", e);
+        }
+        return watching;
+    }
+
+    @SuppressLint("NewApi")
+    public synchronized void stop() {
+        if (watching && activeListener != null) {
+            AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+            try {
+                if (appOps != null) {
+                    appOps.stopWatchingActive((AppOpsManager.OnOpActiveChangedListener) activeListener);
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "stopWatchingActive failed", e);
+            }
+        }
+        activeListener = null;
+        watching = false;
+    }
+
+    /**
+     * Restricts the watched ops to the enabled sensors. If the set changed while watching,
+     * the registration is replaced (or dropped entirely when nothing is enabled).
+     */
+    public synchronized void applyConfig(MonitoringConfig config) {
+        String[] next = watchedOps(config);
+        if (Arrays.equals(next, ops)) return;
+        ops = next;
+        if (watching) {
+            stop();
+            start();
+        }
+    }
+
+    /** Stops watching and releases the callback thread. */
+    public void shutdown() {
+        stop();
+        callbackExecutor.shutdownNow();
+    }
+
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /** How often the full AppOps poll should still run while events are being delivered. */
+    public long getReconcileIntervalMs() {
+        return reconcileIntervalMs;
+    }
+
+    public void setReconcileIntervalMs(long intervalMs) {
+        this.reconcileIntervalMs = Math.max(60_000L, intervalMs);
+    }
+
+    // --- Op <-> sensor mapping ---
+    static String[] watchedOps() {
+        return new String[] {
+                AppOpsManager.OPSTR_CAMERA,
+                AppOpsManager.OPSTR_RECORD_AUDIO,
+                AppOpsManager.OPSTR_MONITOR_LOCATION,
+                AppOpsManager.OPSTR_MONITOR_HIGH_POWER_LOCATION
+        };
+    }
+
+    static String[] watchedOps(MonitoringConfig config) {
+        List<String> ops = new ArrayList<>(4);
+        if (config.cameraEnabled) ops.add(AppOpsManager.OPSTR_CAMERA);
+        if (config.micEnabled) ops.add(AppOpsManager.OPSTR_RECORD_AUDIO);
+        if (config.locationEnabled) {
+            ops.add(AppOpsManager.OPSTR_MONITOR_LOCATION);
+            ops.add(AppOpsManager.OPSTR_MONITOR_HIGH_POWER_LOCATION);
+        }
+        return ops.toArray(new String[0]);
+    }
+
+    static String sensorTypeForOp(String op) {
+        if (op == null) return null;
+        switch (op) {
+            case AppOpsManager.OPSTR_CAMERA:
+                return "CAMERA";
+            case AppOpsManager.OPSTR_RECORD_AUDIO:
+                return "MICROPHONE";
+            case AppOpsManager.OPSTR_MONITOR_LOCATION:
+            case AppOpsManager.OPSTR_MONITOR_HIGH_POWER_LOCATION:
+            case AppOpsManager.OPSTR_FINE_LOCATION:
+            case AppOpsManager.OPSTR_COARSE_LOCATION:
+                return "LOCATION";
+            default:
+                return null;
+        }
+    }
+}
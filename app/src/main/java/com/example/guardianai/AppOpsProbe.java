@@ -0,0 +1,211 @@
+package com.example.guardianai;
+
+import android.annotation.SuppressLint;
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads AppOps access timestamps for the watched sensor ops.
+ *
+ * - The reflective accessors are resolved once per process and cached.
+ * - Where the platform allows it, snapshotAll() fetches every watched op for every
+ *   package with a single getPackagesForOps() call (needs GET_APP_OPS_STATS).
+ * - Otherwise snapshot() queries one package at a time through the cached accessor.
+ *
+ * Only the ops of sensors enabled in the given MonitoringConfig are queried.
+ * Callers are expected to have checked usage access already; the probe does not re-check it.
+ * The cost of both paths is measured by AppOpsProbeBenchmark (androidTest).
+ */
+public class AppOpsProbe {
+
+    private static final String TAG = "AppOpsProbe";
+    private static final int OP_FLAGS_ALL = 0x1F; // AppOpsManager.OP_FLAGS_ALL (hidden)
+
+    static final String[] WATCHED_OPS = {
+            AppOpsManager.OPSTR_CAMERA,
+            AppOpsManager.OPSTR_RECORD_AUDIO,
+            AppOpsManager.OPSTR_FINE_LOCATION,
+            AppOpsManager.OPSTR_COARSE_LOCATION
+    };
+
+    // --- Cached reflective accessors (resolved once per process) ---
+    private static volatile boolean accessorsResolved = false;
+    private static Method getLastAccessedTime;   // AppOpsManager#getLastAccessedTime(String, int, String)
+    private static Method getPackagesForOps;     // AppOpsManager#getPackagesForOps(String[])
+    private static Method pkgOpsGetPackageName;  // PackageOps#getPackageName()
+    private static Method pkgOpsGetUid;          // PackageOps#getUid()
+    private static Method pkgOpsGetOps;          // PackageOps#getOps()
+    private static Method opEntryGetOpStr;       // OpEntry#getOpStr()
+    private static Method opEntryGetLastAccess;  // OpEntry#getLastAccessTime(int) or OpEntry#getTime()
+    private static boolean opEntryTakesFlags;
+
+    /** Compact per-package view of the watched ops (0 = never / unknown). */
+    public static class PackageSnapshot {
+        public final String packageName;
+        public final int uid;
+        public final long cameraTime;
+        public final long micTime;
+        public final long fineLocationTime;
+        public final long coarseLocationTime;
+
+        PackageSnapshot(String packageName, int uid, long cameraTime, long micTime, long fineLocationTime, long coarseLocationTime) {
+            this.packageName = packageName;
+            this.uid = uid;
+            this.cameraTime = cameraTime;
+            this.micTime = micTime;
+            this.fineLocationTime = fineLocationTime;
+            this.coarseLocationTime = coarseLocationTime;
+        }
+
+        public long locationTime() {
+            return Math.max(fineLocationTime, coarseLocationTime);
+        }
+    }
+
+    private final AppOpsManager appOps;
+    private boolean bulkDenied = false;
+
+    public AppOpsProbe(Context context) {
+        this.appOps = (AppOpsManager) context.getApplicationContext().getSystemService(Context.APP_OPS_SERVICE);
+        resolveAccessors();
+    }
+
+    public boolean isAvailable() {
+        return appOps != null;
+    }
+
+    /**
+     * Fetches the enabled sensors' ops for all packages in one call.
+     * @return snapshots keyed by package name, or null if the bulk query is unavailable.
+     */
+    public Map<String, PackageSnapshot> snapshotAll(MonitoringConfig config) {
+        if (appOps == null || getPackagesForOps == null || bulkDenied) return null;
+        String[] ops = opsFor(config);
+        if (ops.length == 0) return Collections.emptyMap();
+        try {
+            List<?> packageOps = (List<?>) getPackagesForOps.invoke(appOps, (Object) ops);
+            if (packageOps == null) return Collections.emptyMap();
+
+            Map<String, PackageSnapshot> result = new HashMap<>(packageOps.size() * 2);
+            for (Object pkgOps : packageOps) {
+                String pkg = (String) pkgOpsGetPackageName.invoke(pkgOps);
+                int uid = (int) pkgOpsGetUid.invoke(pkgOps);
+                long cam = 0L, mic = 0L, fine = 0L, coarse = 0L;
+                List<?> entries = (List<?>) pkgOpsGetOps.invoke(pkgOps);
+                if (entries != null) {
+                    for (Object entry : entries) {
+                        String op = (String) opEntryGetOpStr.invoke(entry);
+                        long time = opEntryTakesFlags
+                                ? (long) opEntryGetLastAccess.invoke(entry, OP_FLAGS_ALL)
+                                : (long) opEntryGetLastAccess.invoke(entry);
+                        if (AppOpsManager.OPSTR_CAMERA.equals(op)) cam = time;
+                        else if (AppOpsManager.OPSTR_RECORD_AUDIO.equals(op)) mic = time;
+                        else if (AppOpsManager.OPSTR_FINE_LOCATION.equals(op)) fine = time;
+                        else if (AppOpsManager.OPSTR_COARSE_LOCATION.equals(op)) coarse = time;
+                    }
+                }
+                result.put(pkg, new PackageSnapshot(pkg, uid, cam, mic, fine, coarse));
+            }
+            return result;
+        } catch (java.lang.reflect.InvocationTargetException ite) {
+            // SecurityException from the platform: GET_APP_OPS_STATS is not held
+            Log.w(TAG, "Bulk AppOps query denied; using per-package queries.", ite.getCause());
+            bulkDenied = true;
+            return null;
+        } catch (Throwable t) {
+            Log.w(TAG, "Bulk AppOps query failed; using per-package queries.", t);
+            bulkDenied = true;
+            return null;
+        }
+    }
+
+    /** Queries the enabled sensors' ops for a single package through the cached accessor. */
+    public PackageSnapshot snapshot(String pkg, int uid, MonitoringConfig config) {
+        return new PackageSnapshot(pkg, uid,
+                config.cameraEnabled ? lastAccessTime(AppOpsManager.OPSTR_CAMERA, uid, pkg) : 0L,
+                config.micEnabled ? lastAccessTime(AppOpsManager.OPSTR_RECORD_AUDIO, uid, pkg) : 0L,
+                config.locationEnabled ? lastAccessTime(AppOpsManager.OPSTR_FINE_LOCATION, uid, pkg) : 0L,
+                config.locationEnabled ? lastAccessTime(AppOpsManager.OPSTR_COARSE_LOCATION, uid, pkg) : 0L);
+    }
+
+    /** Subset of WATCHED_OPS belonging to the enabled sensors. */
+    static String[] opsFor(MonitoringConfig config) {
+        List<String> ops = new ArrayList<>(WATCHED_OPS.length);
+        if (config.cameraEnabled) ops.add(AppOpsManager.OPSTR_CAMERA);
+        if (config.micEnabled) ops.add(AppOpsManager.OPSTR_RECORD_AUDIO);
+        if (config.locationEnabled) {
+            ops.add(AppOpsManager.OPSTR_FINE_LOCATION);
+            ops.add(AppOpsManager.OPSTR_COARSE_LOCATION);
+        }
+        return ops.toArray(new String[0]);
+    }
+
+    /**
+     * Safe wrapper around AppOps timestamps:
+     * - Android 11+ uses the cached reflective getLastAccessedTime()
+     * - Android 10 uses unsafeCheckOpNoThrow() as an approximation
+     * - Returns 0 if unavailable
+     */
+    @SuppressLint("NewApi")
+    private long lastAccessTime(String op, int uid, String pkg) {
+        if (appOps == null) return 0L;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) { // API 30+
+                if (getLastAccessedTime == null) return 0L;
+                return (long) getLastAccessedTime.invoke(appOps, op, uid, pkg);
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) { // API 29
+                int mode = appOps.unsafeCheckOpNoThrow(op, uid, pkg);
+                return mode == AppOpsManager.MODE_ALLOWED ? System.currentTimeMillis() : 0L;
+            }
+        } catch (SecurityException se) {
+            Log.w(TAG, "Usage access denied while checking AppOps", se);
+        } catch (Throwable t) {
+            // Hidden API missing or blocked on this build
+        }
+        return 0L;
+    }
+
+    // --- Reflection setup ---
+    private static void resolveAccessors() {
+        if (accessorsResolved) return;
+        synchronized (AppOpsProbe.class) {
+            if (accessorsResolved) return;
+            try {
+                getLastAccessedTime = AppOpsManager.class
+                        .getMethod("getLastAccessedTime", String.class, int.class, String.class);
+            } catch (Throwable t) {
+                getLastAccessedTime = null;
+            }
+            try {
+                Method bulk = AppOpsManager.class.getMethod("getPackagesForOps", String[].class);
+                Class<?> pkgOpsClass = Class.forName("android.app.AppOpsManager$PackageOps");
+                Class<?> opEntryClass = Class.forName("android.app.AppOpsManager$OpEntry");
+                pkgOpsGetPackageName = pkgOpsClass.getMethod("getPackageName");
+                pkgOpsGetUid = pkgOpsClass.getMethod("getUid");
+                pkgOpsGetOps = pkgOpsClass.getMethod("getOps");
+                opEntryGetOpStr = opEntryClass.getMethod("getOpStr");
+                try {
+                    opEntryGetLastAccess = opEntryClass.getMethod("getLastAccessTime", int.class);
+                    opEntryTakesFlags = true;
+                } catch (NoSuchMethodException e) {
+                    opEntryGetLastAccess = opEntryClass.getMethod("getTime");
+                    opEntryTakesFlags = false;
+                }
+                getPackagesForOps = bulk;
+            } catch (Throwable t) {
+                Log.d(TAG, "Bulk AppOps query not available on this build.");
+                getPackagesForOps = null;
+            }
+            accessorsResolved = true;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.guardianai;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Join row: app requests permission (by dictionary id) and whether it is granted.
+ * Risk is not stored: it depends on the installed rules, so readers take it from CompiledRiskModel.
+ * The primary key serves lookups by package; the permission_id index serves the grid queries.
+ */
+@Entity(tableName = "app_permission",
+        primaryKeys = {"package_name", "permission_id"},
+        indices = {@Index(value = {"permission_id", "granted"})})
+public class AppPermissionGrant {
+
+    @NonNull
+    @ColumnInfo(name = "package_name")
+    public String packageName;
+
+    @ColumnInfo(name = "permission_id")
+    public int permissionId;
+
+    @ColumnInfo(name = "granted")
+    public boolean granted;
+
+    public AppPermissionGrant(@NonNull String packageName, int permissionId, boolean granted) {
+        this.packageName = packageName;
+        this.permissionId = permissionId;
+        this.granted = granted;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.guardianai; // Create a 'db' sub-package if you like
 
+import android.content.pm.PackageInfo;
+
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
+/**
+ * One row per scanned app. The individual permissions live in the app_permission join table
+ * (AppPermissionGrant); this row only carries the fingerprint used to skip unchanged apps.
+ */
 @Entity(tableName = "app_permissions")
 public class AppPermissions {
 
@@ -11,11 +17,34 @@ public class AppPermissions {
     @NonNull
     public String packageName; // Unique identifier for the app
 
-    // Store permissions as a single comma-separated string
-    public String permissionsList;
+    // 64-bit hash of the requested permissions and their grant state
+    public long fingerprint;
 
-    public AppPermissions(@NonNull String packageName, String permissionsList) {
+    public AppPermissions(@NonNull String packageName, long fingerprint) {
         this.packageName = packageName;
-        this.permissionsList = permissionsList;
+        this.fingerprint = fingerprint;
+    }
+
+    /** FNV-1a hash over each requested permission and its granted flag (0 if none). */
+    public static long fingerprintOf(PackageInfo info) {
+        String[] requested = info.requestedPermissions;
+        if (requested == null || requested.length == 0) return 0L;
+        int[] flags = info.requestedPermissionsFlags;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < requested.length; i++) {
+            String permission = requested[i];
+            for (int c = 0; c < permission.length(); c++) {
+                hash ^= permission.charAt(c);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= isGranted(flags, i) ? '+' : '-';
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static boolean isGranted(int[] flags, int index) {
+        return flags != null && index < flags.length
+                && (flags[index] & PackageInfo.REQUESTED_PERMISSION_GRANTED) != 0;
     }
-}
\ No newline at end of file
+}
@@ -9,15 +9,53 @@ import java.util.List;
 @Dao
 public interface AppPermissionsDao {
 
+    // --- app_permissions (one row per app) ---
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertOrUpdateAppPermissions(AppPermissions appPermissions);
 
-    @Query("SELECT permissionsList FROM app_permissions WHERE packageName = :packageName")
-    String getPermissionsForApp(String packageName); // Returns the comma-separated string
+    // Bulk variant used by scans (see AppPermissionsStore); one statement per row, one transaction
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertOrUpdateAll(List<AppPermissions> appPermissions);
+
+    @Query("SELECT packageName, fingerprint FROM app_permissions")
+    List<AppPermissionsFingerprint> getAllFingerprints();
 
-    @Query("SELECT * FROM app_permissions") // Get all stored apps (optional)
-    List<AppPermissions> getAllAppPermissions();
+    @Query("SELECT COUNT(*) FROM app_permissions")
+    int getAppCount();
 
     @Query("DELETE FROM app_permissions WHERE packageName = :packageName")
     void deleteAppPermissions(String packageName); // Needed for app uninstall later
-}
\ No newline at end of file
+
+    // --- permissions dictionary ---
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertPermission(PermissionDefinition permission); // -1 if the name already exists
+
+    @Query("SELECT * FROM permissions")
+    List<PermissionDefinition> getAllPermissionDefinitions();
+
+    @Query("SELECT id FROM permissions WHERE name = :name")
+    Integer getPermissionId(String name);
+
+    // --- app_permission join table ---
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertGrants(List<AppPermissionGrant> grants);
+
+    @Query("DELETE FROM app_permission WHERE package_name = :packageName")
+    void deleteGrantsForApp(String packageName);
+
+    // All requested permission names of one app (granted or not)
+    @Query("SELECT p.name FROM app_permission ap JOIN permissions p ON p.id = ap.permission_id "
+            + "WHERE ap.package_name = :packageName")
+    List<String> getPermissionsForApp(String packageName);
+
+    // Grid counts: apps holding each of the given permissions
+    @Query("SELECT p.name AS permission, COUNT(*) AS appCount FROM permissions p "
+            + "JOIN app_permission ap ON ap.permission_id = p.id AND ap.granted = 1 "
+            + "WHERE p.name IN (:permissions) GROUP BY p.name")
+    List<PermissionAppCount> countAppsWithPermissions(List<String> permissions);
+
+    @Query("SELECT ap.package_name FROM permissions p "
+            + "JOIN app_permission ap ON ap.permission_id = p.id AND ap.granted = 1 "
+            + "WHERE p.name = :permission ORDER BY ap.package_name")
+    List<String> getAppsWithPermission(String permission);
+}
@@ -0,0 +1,7 @@
+package com.example.guardianai;
+
+/** Projection of app_permissions used to detect changed rows without loading the lists. */
+public class AppPermissionsFingerprint {
+    public String packageName;
+    public long fingerprint;
+}
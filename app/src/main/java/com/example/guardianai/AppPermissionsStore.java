@@ -0,0 +1,132 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes scan results to the normalized permission tables in one transaction.
+ *
+ * - app_permissions: one row per app with a fingerprint of its permissions and grant state
+ * - permissions: name -> integer id dictionary (cached in memory once loaded)
+ * - app_permission: (app, permission id) rows with the granted flag and risk level
+ *
+ * Stored fingerprints are read first and only apps whose permission set changed are
+ * rewritten, so a rescan with no changes costs one small read and no writes. Apps that are no
+ * longer installed are removed. All methods hit the database; call them off the main thread.
+ */
+public class AppPermissionsStore {
+
+    private static final String TAG = "AppPermissionsStore";
+
+    private static volatile AppPermissionsStore INSTANCE;
+
+    public static AppPermissionsStore getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (AppPermissionsStore.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppPermissionsStore(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final AppDatabase db;
+    private final AppPermissionsDao dao;
+    private Map<String, Integer> permissionIds; // guarded by this; loaded on first write
+
+    private AppPermissionsStore(Context appContext) {
+        this.db = AppDatabase.getDatabase(appContext);
+        this.dao = db.appPermissionsDao();
+    }
+
+    /**
+     * Stores a full scan: rewrites changed apps and drops apps missing from the scan.
+     * @return number of apps written or removed.
+     */
+    public synchronized int saveAll(ScanSnapshot snapshot) {
+        final int[] written = {0};
+        db.runInTransaction(() -> {
+            Map<String, Long> stored = new HashMap<>();
+            for (AppPermissionsFingerprint row : dao.getAllFingerprints()) {
+                stored.put(row.packageName, row.fingerprint);
+            }
+            List<AppPermissions> changedRows = new ArrayList<>();
+            for (ScanSnapshot.AppEntry app : snapshot.getApps()) {
+                PackageInfo info = app.getPackageInfo();
+                long fingerprint = AppPermissions.fingerprintOf(info);
+                Long previous = stored.remove(info.packageName);
+                if (previous != null && previous == fingerprint) continue;
+                writeGrants(info);
+                changedRows.add(new AppPermissions(info.packageName, fingerprint));
+            }
+            if (!changedRows.isEmpty()) dao.insertOrUpdateAll(changedRows);
+            for (String removed : stored.keySet()) { // left over: no longer installed
+                dao.deleteGrantsForApp(removed);
+                dao.deleteAppPermissions(removed);
+            }
+            written[0] = changedRows.size() + stored.size();
+        });
+        Log.d(TAG, "Saved permissions: " + written[0] + " of " + snapshot.getTotalAppCount() + " apps changed.");
+        return written[0];
+    }
+
+    /** Stores one app (e.g. after an update). */
+    public synchronized void saveApp(PackageInfo info) {
+        db.runInTransaction(() -> {
+            writeGrants(info);
+            dao.insertOrUpdateAppPermissions(new AppPermissions(info.packageName, AppPermissions.fingerprintOf(info)));
+        });
+    }
+
+    /** Removes an uninstalled app's rows. */
+    public synchronized void deleteApp(String packageName) {
+        db.runInTransaction(() -> {
+            dao.deleteGrantsForApp(packageName);
+            dao.deleteAppPermissions(packageName);
+        });
+    }
+
+    /** Names of all permissions the app requested when it was last stored. */
+    public Set<String> getStoredPermissions(String packageName) {
+        return new HashSet<>(dao.getPermissionsForApp(packageName));
+    }
+
+    // --- Internal (inside a transaction) ---
+    private void writeGrants(PackageInfo info) {
+        dao.deleteGrantsForApp(info.packageName);
+        String[] requested = info.requestedPermissions;
+        if (requested == null || requested.length == 0) return;
+
+        List<AppPermissionGrant> grants = new ArrayList<>(requested.length);
+        for (int i = 0; i < requested.length; i++) {
+            grants.add(new AppPermissionGrant(info.packageName, permissionId(requested[i]),
+                    AppPermissions.isGranted(info.requestedPermissionsFlags, i)));
+        }
+        dao.insertGrants(grants);
+    }
+
+    private int permissionId(String name) {
+        if (permissionIds == null) {
+            permissionIds = new HashMap<>();
+            for (PermissionDefinition def : dao.getAllPermissionDefinitions()) {
+                permissionIds.put(def.name, def.id);
+            }
+        }
+        Integer id = permissionIds.get(name);
+        if (id == null) {
+            long rowId = dao.insertPermission(new PermissionDefinition(name));
+            id = rowId > 0 ? (int) rowId : dao.getPermissionId(name);
+            permissionIds.put(name, id);
+        }
+        return id;
+    }
+}
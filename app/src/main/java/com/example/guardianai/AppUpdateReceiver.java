@@ -52,6 +52,20 @@ public class AppUpdateReceiver extends BroadcastReceiver {
             // Schedule a background worker to handle this.
             Log.d(TAG, "App added or replaced: " + packageName + ". Enqueuing PermissionCheckWorker.");
 
+            // Keep the shared package index current (re-reads just this package)
+            final Context indexContext = context.getApplicationContext();
+            new Thread(() -> {
+                PackageIndex index = PackageIndex.getInstance(indexContext);
+                index.onPackageChanged(packageName);
+                // Only now can a new scan see the change; earlier would let one cache the old index
+                ScanCoordinator.getInstance(indexContext).invalidate();
+                // O(1) score delta for just this package; no rescan
+                ScanSnapshot.AppEntry entry = new PermissionScanEngine(indexContext).scanOne(index.getSnapshot().get(packageName));
+                if (entry != null) RiskScoreModel.getInstance().update(packageName, entry.getRiskLevel());
+                else RiskScoreModel.getInstance().remove(packageName);
+            }).start();
+            AppLabelCache.getInstance(indexContext).invalidate(packageName);
+
             // Create Input Data containing the package name for the Worker
             Data inputData = new Data.Builder()
                     .putString(PermissionCheckWorker.KEY_PACKAGE_NAME, packageName)
@@ -80,6 +94,18 @@ public class AppUpdateReceiver extends BroadcastReceiver {
             // We need to clean up any stored data related to this app.
             Log.d(TAG, "App removed: " + packageName + ". Cleaning up database entries.");
 
+            // An update sends REMOVED (replacing) before REPLACED. It is not an uninstall: keep the
+            // index entry and the stored permissions so PermissionCheckWorker can diff against them
+            boolean replacing = intent.getBooleanExtra(Intent.EXTRA_REPLACING, false);
+            if (replacing) {
+                return;
+            }
+
+            PackageIndex.getInstance(context.getApplicationContext()).onPackageRemoved(packageName);
+            AppLabelCache.getInstance(context.getApplicationContext()).invalidate(packageName);
+            ScanCoordinator.getInstance(context.getApplicationContext()).invalidate();
+            RiskScoreModel.getInstance().remove(packageName);
+
             // --- Clean up DB in a background thread ---
             // Using a simple thread here. For robustness, WorkManager could also be used.
             final Context appContext = context.getApplicationContext(); // Use application context
@@ -87,8 +113,8 @@ public class AppUpdateReceiver extends BroadcastReceiver {
                 Log.d(TAG, "Background thread started for DB cleanup: " + packageName);
                 try {
                     AppDatabase db = AppDatabase.getDatabase(appContext);
-                    // Delete the app's permission record
-                    db.appPermissionsDao().deleteAppPermissions(packageName);
+                    // Delete the app's permission record (and its app_permission rows)
+                    AppPermissionsStore.getInstance(appContext).deleteApp(packageName);
                     // Delete any recommendations specifically associated with this app
                     db.recommendationDao().deleteRecommendationsByPackage(packageName);
                     Log.d(TAG, "Database cleaned up successfully for removed package: " + packageName);
@@ -0,0 +1,217 @@
+package com.example.guardianai;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayDeque;
+
+/**
+ * Picks the monitoring poll period from device state and the selected policy.
+ *
+ * - Screen off, battery saver or Doze: back off to the policy's idle period
+ * - A camera / mic / location session is open: tighten to the active period
+ * - Otherwise: the policy's baseline period
+ *
+ * The policy is stored in SettingsFragment's preferences (KEY_CADENCE_POLICY) and picked up
+ * at runtime. Whenever the period changes the listener is told, so it can be applied to the
+ * MonitoringScheduler. Expected and measured wakeups per hour are logged on every change.
+ */
+public class CadenceController {
+
+    private static final String TAG = "CadenceController";
+    private static final long HOUR_MS = 60 * 60_000L;
+
+    public enum Policy {
+        BATTERY_SAVER(15_000L, 60_000L, 300_000L),
+        BALANCED(10_000L, 18_000L, 120_000L),
+        PARANOID(5_000L, 10_000L, 30_000L);
+
+        public final long activePeriodMs;   // while a sensor session is open
+        public final long baselinePeriodMs; // screen on, nothing happening
+        public final long idlePeriodMs;     // screen off, battery saver or Doze
+
+        Policy(long activePeriodMs, long baselinePeriodMs, long idlePeriodMs) {
+            this.activePeriodMs = activePeriodMs;
+            this.baselinePeriodMs = baselinePeriodMs;
+            this.idlePeriodMs = idlePeriodMs;
+        }
+
+        public long baselineWakeupsPerHour() {
+            return HOUR_MS / baselinePeriodMs;
+        }
+
+        static Policy fromName(String name) {
+            if (name != null) {
+                for (Policy p : values()) {
+                    if (p.name().equals(name)) return p;
+                }
+            }
+            return BALANCED;
+        }
+    }
+
+    public interface OnPeriodChangedListener {
+        void onPeriodChanged(long periodMs);
+    }
+
+    public static Policy getPolicy(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(SettingsFragment.PREFS_NAME, Context.MODE_PRIVATE);
+        return Policy.fromName(prefs.getString(SettingsFragment.KEY_CADENCE_POLICY, Policy.BALANCED.name()));
+    }
+
+    private final Context context;
+    private final OnPeriodChangedListener listener;
+    private final SharedPreferences prefs;
+    private final PowerManager powerManager;
+
+    private Policy policy;
+    private boolean screenOn = true;
+    private boolean powerSave = false;
+    private boolean deviceIdle = false;
+    private boolean sessionActive = false;
+    private long currentPeriodMs;
+    private boolean registered = false;
+
+    // Tick timestamps (elapsedRealtime) within the last hour, for the measured wakeup rate
+    private final ArrayDeque<Long> recentTicks = new ArrayDeque<>();
+
+    private final BroadcastReceiver deviceStateReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context c, Intent intent) {
+            String action = intent.getAction();
+            if (Intent.ACTION_SCREEN_ON.equals(action)) {
+                setScreenOn(true);
+            } else if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                setScreenOn(false);
+            } else {
+                refreshPowerState();
+            }
+        }
+    };
+
+    // Kept as a field: SharedPreferences only holds a weak reference to its listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener prefsListener = (p, key) -> {
+        if (SettingsFragment.KEY_CADENCE_POLICY.equals(key)) {
+            synchronized (this) {
+                policy = Policy.fromName(p.getString(key, Policy.BALANCED.name()));
+                Log.d(TAG, "Cadence policy changed to " + policy);
+            }
+            recompute();
+        }
+    };
+
+    public CadenceController(Context context, OnPeriodChangedListener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+        this.prefs = this.context.getSharedPreferences(SettingsFragment.PREFS_NAME, Context.MODE_PRIVATE);
+        this.powerManager = (PowerManager) this.context.getSystemService(Context.POWER_SERVICE);
+        this.policy = Policy.fromName(prefs.getString(SettingsFragment.KEY_CADENCE_POLICY, Policy.BALANCED.name()));
+        if (powerManager != null) screenOn = powerManager.isInteractive();
+        refreshPowerStateLocked();
+        this.currentPeriodMs = computePeriodLocked();
+    }
+
+    /** Registers for screen / power-save / Doze broadcasts and policy changes. */
+    public synchronized void start() {
+        if (registered) return;
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+        filter.addAction(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED);
+        ContextCompat.registerReceiver(context, deviceStateReceiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED);
+        prefs.registerOnSharedPreferenceChangeListener(prefsListener);
+        registered = true;
+        Log.d(TAG, "Started: policy=" + policy + ", period=" + currentPeriodMs + " ms");
+    }
+
+    public synchronized void stop() {
+        if (!registered) return;
+        try {
+            context.unregisterReceiver(deviceStateReceiver);
+        } catch (IllegalArgumentException ignored) {
+        }
+        prefs.unregisterOnSharedPreferenceChangeListener(prefsListener);
+        registered = false;
+        Log.d(TAG, "Stopped. Measured wakeups/hour: " + getMeasuredWakeupsPerHour());
+    }
+
+    /** Current poll period for the scheduler. */
+    public synchronized long getPeriodMs() {
+        return currentPeriodMs;
+    }
+
+    /** Tightens the cadence while any sensor session is open. */
+    public void setSessionActive(boolean active) {
+        synchronized (this) {
+            if (sessionActive == active) return;
+            sessionActive = active;
+        }
+        recompute();
+    }
+
+    /** Records that a monitoring tick ran (used for the measured wakeup rate). */
+    public synchronized void recordTick() {
+        long now = SystemClock.elapsedRealtime();
+        recentTicks.addLast(now);
+        while (!recentTicks.isEmpty() && now - recentTicks.peekFirst() > HOUR_MS) recentTicks.pollFirst();
+    }
+
+    /** Wakeups per hour the current period results in. */
+    public synchronized long getExpectedWakeupsPerHour() {
+        return HOUR_MS / currentPeriodMs;
+    }
+
+    /** Ticks actually recorded over the last hour. */
+    public synchronized int getMeasuredWakeupsPerHour() {
+        return recentTicks.size();
+    }
+
+    // --- Internal ---
+    private void setScreenOn(boolean on) {
+        synchronized (this) {
+            screenOn = on;
+        }
+        recompute();
+    }
+
+    private void refreshPowerState() {
+        synchronized (this) {
+            refreshPowerStateLocked();
+        }
+        recompute();
+    }
+
+    private void refreshPowerStateLocked() {
+        if (powerManager == null) return;
+        powerSave = powerManager.isPowerSaveMode();
+        deviceIdle = powerManager.isDeviceIdleMode();
+    }
+
+    private long computePeriodLocked() {
+        if (!screenOn || powerSave || deviceIdle) return policy.idlePeriodMs;
+        if (sessionActive) return policy.activePeriodMs;
+        return policy.baselinePeriodMs;
+    }
+
+    private void recompute() {
+        long period;
+        synchronized (this) {
+            period = computePeriodLocked();
+            if (period == currentPeriodMs) return;
+            currentPeriodMs = period;
+            Log.d(TAG, "Cadence -> " + period + " ms (policy=" + policy + ", screenOn=" + screenOn
+                    + ", powerSave=" + powerSave + ", idle=" + deviceIdle + ", session=" + sessionActive
+                    + "); expected " + (HOUR_MS / period) + " wakeups/hour, measured " + recentTicks.size());
+        }
+        listener.onPeriodChanged(period);
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.guardianai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Permission risk table compiled for hot loops.
+ *
+ * Every permission with a rule is interned once to a dense integer id; its risk is a byte
+ * array lookup. An app's granted permissions become a long[] bitset over those ids, so
+ * "has any HIGH", dangerous combinations and category membership are word-wise ANDs.
+ * Permissions without a rule have no id and are NO_RISK, so they never need a bit; a
+ * permission that only appears in a combination gets a NO_RISK id so the combination's mask
+ * can see it.
+ * requestedIds() interns a package's requested permissions once per package version, so
+ * repeated scans set bits by id without any per-permission string lookup.
+ *
+ * The compiled tables are immutable. getDefault() is compiled from PermissionAnalyzer's
+ * tables until RiskRuleLoader installs the rule file; install() swaps the default atomically,
+ * so callers that hold a model keep a consistent view for the rest of their pass.
+ */
+public final class CompiledRiskModel {
+
+    private static final PermissionAnalyzer.RiskLevel[] LEVELS = PermissionAnalyzer.RiskLevel.values();
+
+    /** Named set of permissions that is riskier together than each one alone. */
+    public static final class Combination {
+        public final String name;
+        public final PermissionAnalyzer.RiskLevel level; // overall risk of an app holding all of them
+        final long[] mask;
+
+        Combination(String name, PermissionAnalyzer.RiskLevel level, long[] mask) {
+            this.name = name;
+            this.level = level;
+            this.mask = mask;
+        }
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    /** Ids of one package version's requested permissions (see requestedIds()). */
+    private static final class InternedPackage {
+        final long lastUpdateTime;
+        final int[] ids;
+
+        InternedPackage(long lastUpdateTime, int[] ids) {
+            this.lastUpdateTime = lastUpdateTime;
+            this.ids = ids;
+        }
+    }
+
+    private static volatile CompiledRiskModel defaultModel;
+
+    public static CompiledRiskModel getDefault() {
+        CompiledRiskModel model = defaultModel;
+        if (model == null) {
+            synchronized (CompiledRiskModel.class) {
+                if (defaultModel == null) defaultModel = PermissionAnalyzer.compileDefaultModel();
+                model = defaultModel;
+            }
+        }
+        return model;
+    }
+
+    /** Replaces the default model; later getDefault() calls see the new rules. */
+    public static void install(CompiledRiskModel model) {
+        if (model == null) return;
+        synchronized (CompiledRiskModel.class) {
+            defaultModel = model;
+        }
+    }
+
+    private final Map<String, Integer> ids;
+    private final String[] names;
+    private final byte[] risk; // RiskLevel ordinal per id
+    private final int words;
+    private final long[] highMask;
+    private final long[] mediumMask;
+    private final long[] lowMask;
+    private final List<Combination> combinations;
+    // Memo only (does not affect results); per model, so new rules re-intern everything
+    private final Map<String, InternedPackage> interned = new ConcurrentHashMap<>();
+
+    /**
+     * @param rules        permission -> risk level
+     * @param combinations combination name -> permissions that must all be granted; all HIGH
+     */
+    public CompiledRiskModel(Map<String, PermissionAnalyzer.RiskLevel> rules, Map<String, String[]> combinations) {
+        this(rules, combinations, null);
+    }
+
+    /**
+     * @param rules             permission -> risk level
+     * @param combinations      combination name -> permissions that must all be granted
+     * @param combinationLevels combination name -> level; missing entries are HIGH
+     */
+    public CompiledRiskModel(Map<String, PermissionAnalyzer.RiskLevel> rules, Map<String, String[]> combinations,
+                             Map<String, PermissionAnalyzer.RiskLevel> combinationLevels) {
+        Map<String, PermissionAnalyzer.RiskLevel> all = new LinkedHashMap<>(rules);
+        if (combinations != null) {
+            for (String[] permissions : combinations.values()) {
+                for (String permission : permissions) {
+                    if (permission != null && !all.containsKey(permission)) {
+                        all.put(permission, PermissionAnalyzer.RiskLevel.NO_RISK);
+                    }
+                }
+            }
+        }
+        int n = all.size();
+        this.ids = new HashMap<>(n * 2);
+        this.names = new String[n];
+        this.risk = new byte[n];
+        this.words = Math.max(1, (n + 63) >>> 6);
+        this.highMask = new long[words];
+        this.mediumMask = new long[words];
+        this.lowMask = new long[words];
+
+        int id = 0;
+        for (Map.Entry<String, PermissionAnalyzer.RiskLevel> rule : all.entrySet()) {
+            ids.put(rule.getKey(), id);
+            names[id] = rule.getKey();
+            risk[id] = (byte) rule.getValue().ordinal();
+            switch (rule.getValue()) {
+                case HIGH:   set(highMask, id); break;
+                case MEDIUM: set(mediumMask, id); break;
+                case LOW:    set(lowMask, id); break;
+                default:     break;
+            }
+            id++;
+        }
+
+        List<Combination> compiled = new ArrayList<>();
+        if (combinations != null) {
+            for (Map.Entry<String, String[]> combo : combinations.entrySet()) {
+                PermissionAnalyzer.RiskLevel level = combinationLevels != null
+                        ? combinationLevels.get(combo.getKey()) : null;
+                compiled.add(new Combination(combo.getKey(),
+                        level != null ? level : PermissionAnalyzer.RiskLevel.HIGH, maskOf(combo.getValue())));
+            }
+        }
+        this.combinations = Collections.unmodifiableList(compiled);
+    }
+
+    // --- Per-permission lookups ---
+    /** Dense id of a permission, or -1 if it has no rule and is in no combination. */
+    public int idOf(String permission) {
+        Integer id = permission != null ? ids.get(permission) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Ids of a package's requested permissions in the same order (-1 where there is no rule).
+     * The array is computed once per (package, lastUpdateTime) and shared afterwards: requested
+     * permissions only change when the package is updated. Do not modify it.
+     */
+    public int[] requestedIds(String packageName, long lastUpdateTime, String[] requested) {
+        if (requested == null || requested.length == 0) return NO_IDS;
+        InternedPackage cached = interned.get(packageName);
+        if (cached != null && cached.lastUpdateTime == lastUpdateTime && cached.ids.length == requested.length) {
+            return cached.ids;
+        }
+        int[] ids = new int[requested.length];
+        for (int i = 0; i < requested.length; i++) ids[i] = idOf(requested[i]);
+        interned.put(packageName, new InternedPackage(lastUpdateTime, ids));
+        return ids;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public PermissionAnalyzer.RiskLevel riskOf(int id) {
+        return id >= 0 ? LEVELS[risk[id]] : PermissionAnalyzer.RiskLevel.NO_RISK;
+    }
+
+    public PermissionAnalyzer.RiskLevel riskOf(String permission) {
+        return riskOf(idOf(permission));
+    }
+
+    // --- Bitsets ---
+    public long[] newBitset() {
+        return new long[words];
+    }
+
+    /** Sets the bit of the permission in the bitset; unknown permissions are ignored. */
+    public void add(long[] bitset, String permission) {
+        add(bitset, idOf(permission));
+    }
+
+    /** Sets the bit of an id from idOf()/requestedIds(); -1 is ignored. */
+    public void add(long[] bitset, int id) {
+        if (id >= 0) set(bitset, id);
+    }
+
+    /** Bitset of the permissions that are requested and granted in a PackageInfo's arrays. */
+    public long[] grantedBitset(String[] requested, int[] flags) {
+        long[] bits = new long[words];
+        if (requested == null) return bits;
+        for (int i = 0; i < requested.length; i++) {
+            if (AppPermissions.isGranted(flags, i)) add(bits, requested[i]);
+        }
+        return bits;
+    }
+
+    public long[] maskOf(String... permissions) {
+        long[] mask = new long[words];
+        for (String permission : permissions) add(mask, permission);
+        return mask;
+    }
+
+    /**
+     * Overall risk of the bitset: the highest level of any single permission, raised to the
+     * level of each combination it fully contains.
+     */
+    public PermissionAnalyzer.RiskLevel highestRisk(long[] bitset) {
+        if (intersects(bitset, highMask)) return PermissionAnalyzer.RiskLevel.HIGH;
+        PermissionAnalyzer.RiskLevel level = intersects(bitset, mediumMask) ? PermissionAnalyzer.RiskLevel.MEDIUM
+                : intersects(bitset, lowMask) ? PermissionAnalyzer.RiskLevel.LOW
+                : PermissionAnalyzer.RiskLevel.NO_RISK;
+
+        for (Combination combo : combinations) {
+            // RiskLevel is ordered HIGH first, so a lower ordinal is riskier
+            if (combo.level.ordinal() < level.ordinal() && containsAll(bitset, combo.mask)) {
+                level = combo.level;
+                if (level == PermissionAnalyzer.RiskLevel.HIGH) break;
+            }
+        }
+        return level;
+    }
+
+    public int countAtLevel(long[] bitset, PermissionAnalyzer.RiskLevel level) {
+        long[] mask = level == PermissionAnalyzer.RiskLevel.HIGH ? highMask
+                : level == PermissionAnalyzer.RiskLevel.MEDIUM ? mediumMask
+                : level == PermissionAnalyzer.RiskLevel.LOW ? lowMask : null;
+        if (mask == null) return 0;
+        int count = 0;
+        for (int w = 0; w < words; w++) count += Long.bitCount(bitset[w] & mask[w]);
+        return count;
+    }
+
+    public List<Combination> getCombinations() {
+        return combinations;
+    }
+
+    public static boolean intersects(long[] a, long[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int w = 0; w < n; w++) {
+            if ((a[w] & b[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    public static boolean containsAll(long[] set, long[] mask) {
+        boolean any = false;
+        for (int w = 0; w < mask.length; w++) {
+            long bits = w < set.length ? set[w] : 0L;
+            if ((bits & mask[w]) != mask[w]) return false;
+            any |= mask[w] != 0;
+        }
+        return any; // an empty mask (all permissions unknown) never matches
+    }
+
+    private static void set(long[] bits, int id) {
+        bits[id >>> 6] |= 1L << (id & 63);
+    }
+}
@@ -6,7 +6,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
-import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
@@ -48,8 +47,10 @@ import com.google.android.material.progressindicator.CircularProgressIndicator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +58,7 @@ import java.util.concurrent.TimeUnit;
 public class DashboardFragment extends Fragment {
 
     private static final String TAG = "DashboardFragment";
+    private static final int MAX_SENSOR_ALERTS = 20; // most recent (package, sensor) alert groups shown
 
     // --- UI Elements ---
     private TextView progressText;
@@ -78,6 +80,11 @@ public class DashboardFragment extends Fragment {
 
     // --- Logic Components ---
     private PermissionAnalyzer analyzer;
+    private ScanCoordinator scanCoordinator;
+    private ScanCoordinator.Subscription pendingScan; // main thread only
+    private final RiskScoreModel.OnScoreChangedListener scoreListener = this::onScoreChanged;
+    private DashboardSnapshotStore snapshotStore;
+    private volatile ScanResult lastResult; // last rendered result (cached or scanned); read/written on the executor
     private Map<PermissionAnalyzer.RiskLevel, List<String>> categorizedApps;
     private RecommendationViewModel recommendationViewModel;
     private AppPermissionsDao appPermissionsDao;
@@ -105,6 +112,8 @@ public class DashboardFragment extends Fragment {
             appPermissionsDao = db.appPermissionsDao();
             recommendationDao = db.recommendationDao();
             sensorLogDao = db.sensorLogDao();
+            scanCoordinator = ScanCoordinator.getInstance(appContext);
+            snapshotStore = new DashboardSnapshotStore(appContext);
             Log.d(TAG, "Database DAOs initialized.");
         } else {
             Log.e(TAG, "Context was null during DAO initialization!");
@@ -128,7 +137,7 @@ public class DashboardFragment extends Fragment {
         if (swipeRefreshLayout != null) {
             swipeRefreshLayout.setOnRefreshListener(() -> {
                 Log.d(TAG, "Pull-to-refresh triggered. Starting scan.");
-                startPermissionScan(true);
+                startPermissionScan(true, true);
             });
         }
 
@@ -136,8 +145,12 @@ public class DashboardFragment extends Fragment {
             btnViewSensorLog.setOnClickListener(v -> navigateToSensorLog());
         }
 
-        // Start the initial permission scan (pass false for initial load)
-        startPermissionScan(false);
+        // Installs, updates and removals arrive as score deltas between scans
+        RiskScoreModel.getInstance().addListener(scoreListener);
+
+        // Render the last saved result first, then revalidate with a full scan behind it
+        showCachedSnapshot();
+        startPermissionScan(false, false);
     }
 
     // --- Lifecycle Method: Refresh data when fragment becomes visible again ---
@@ -149,14 +162,19 @@ public class DashboardFragment extends Fragment {
 
         // CRITICAL: Check and prompt for Usage Access first
 
-
-        startPermissionScan(true);
+        // Joins the scan started in onViewCreated, or is answered from a fresh result
+        startPermissionScan(true, false);
     }
 
     // --- Lifecycle Method: Clean up Executor ---
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        RiskScoreModel.getInstance().removeListener(scoreListener);
+        if (pendingScan != null) {
+            pendingScan.cancel(); // the coordinator stops the scan if nobody else is waiting
+            pendingScan = null;
+        }
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
             Log.d(TAG, "ExecutorService shut down.");
@@ -241,12 +259,41 @@ public class DashboardFragment extends Fragment {
     // --- END NEW METHODS ---
 
 
+    /**
+     * Reads the persisted snapshot on the executor and renders it as soon as it is loaded.
+     * Runs before the revalidation scan, which is queued behind it on the same executor.
+     */
+    private void showCachedSnapshot() {
+        if (executorService == null || executorService.isShutdown() || snapshotStore == null) return;
+        executorService.execute(() -> {
+            DashboardSnapshotStore.Snapshot cached = snapshotStore.load();
+            if (cached == null) {
+                Log.d(TAG, "No cached dashboard snapshot; waiting for the first scan.");
+                return;
+            }
+            final ScanResult result = ScanResult.fromSnapshot(cached);
+            lastResult = result;
+            mainThreadHandler.post(() -> {
+                if (!isAdded() || getActivity() == null) return;
+                categorizedApps = result.categorizedApps;
+                updateDashboardBaseUI(result.score, result.highRiskCount, result.mediumRiskCount, result.lowRiskCount, result.noRiskCount);
+                onRecommendationsLiveDataUpdate(recommendationViewModel.getAllRecommendations().getValue());
+                setupCardClickListeners();
+                if (loadingSpinner != null) loadingSpinner.setVisibility(View.GONE);
+                if (mainContentGroup != null) mainContentGroup.setVisibility(View.VISIBLE);
+                Log.d(TAG, "Rendered cached dashboard snapshot from " + cached.savedAt + ".");
+            });
+        });
+    }
+
     /**
      * Method to Start the Background Scan
      * @param isRefresh True if this is a pull-to-refresh or onResume, false if it's the initial load.
+     *                  The refresh spinner only shows while a scan actually runs, not for a cached answer.
+     * @param force True to bypass the coordinator's freshness interval (pull-to-refresh).
      */
-    private void startPermissionScan(boolean isRefresh) {
-        if (executorService == null || executorService.isShutdown() || appPermissionsDao == null || recommendationDao == null) {
+    private void startPermissionScan(boolean isRefresh, boolean force) {
+        if (executorService == null || executorService.isShutdown() || appPermissionsDao == null || recommendationDao == null || scanCoordinator == null) {
             Log.e(TAG, "Cannot start scan: Executor or DAOs are not ready.");
             if(getActivity() != null) Toast.makeText(getActivity(), "Error initializing components.", Toast.LENGTH_LONG).show();
             updateDashboardBaseUI(-1, 0,0,0,0);
@@ -257,9 +304,20 @@ public class DashboardFragment extends Fragment {
             return;
         }
 
+        if (pendingScan != null && !pendingScan.isDone()) {
+            Log.d(TAG, "Scan already requested; waiting for its result.");
+        } else {
+            Log.d(TAG, "Requesting permission scan from coordinator...");
+            pendingScan = scanCoordinator.request(force, snapshot -> {
+                if (executorService.isShutdown()) return;
+                executorService.execute(() -> onScanSnapshot(snapshot, isRefresh));
+            });
+        }
+
         // --- SHOW SPINNER (Updated Logic) ---
+        // A pull shows its own spinner; a resume only shows one if a scan really runs
         if (isRefresh) {
-            if (swipeRefreshLayout != null && !swipeRefreshLayout.isRefreshing()) {
+            if (!pendingScan.isFromCache() && swipeRefreshLayout != null && !swipeRefreshLayout.isRefreshing()) {
                 swipeRefreshLayout.setRefreshing(true);
             }
         } else if (mainContentGroup.getVisibility() != View.VISIBLE) {
@@ -267,48 +325,58 @@ public class DashboardFragment extends Fragment {
             if (mainContentGroup != null) mainContentGroup.setVisibility(View.GONE);
         }
         // --- END SHOW SPINNER ---
+    }
 
-        Log.d(TAG, "Submitting permission scan task to executor...");
-        executorService.execute(() -> {
-            Log.d(TAG, "Background scan task started.");
-            Context context = getContext();
-            if (context == null) {
-                Log.e(TAG, "Context became null. Aborting.");
-                mainThreadHandler.post(() -> {
-                    if (swipeRefreshLayout != null && swipeRefreshLayout.isRefreshing()) {
-                        swipeRefreshLayout.setRefreshing(false);
-                    }
-                });
-                return;
-            }
+    // Runs on the executor with the coordinator's snapshot (null if the scan failed)
+    private void onScanSnapshot(@Nullable ScanSnapshot snapshot, boolean isRefresh) {
+        Log.d(TAG, "Background scan task started.");
+        Context context = getContext();
+        if (context == null) {
+            Log.e(TAG, "Context became null. Aborting.");
+            mainThreadHandler.post(() -> {
+                if (swipeRefreshLayout != null && swipeRefreshLayout.isRefreshing()) {
+                    swipeRefreshLayout.setRefreshing(false);
+                }
+            });
+            return;
+        }
 
-            final ScanResult result = performScanAndCategorization(context, context.getPackageManager());
+        final ScanResult result = snapshot != null ? performScanAndCategorization(context, snapshot) : null;
 
-            // --- Post Results back to Main Thread ---
-            mainThreadHandler.post(() -> {
-                Log.d(TAG, "Received scan results on main thread.");
-                if (result != null && isAdded() && getActivity() != null) {
+        // Only a changed result is re-rendered and persisted
+        final boolean changed = result != null && !result.sameAs(lastResult);
+        if (changed) {
+            lastResult = result;
+            if (snapshotStore != null) snapshotStore.save(result.toSnapshot());
+        }
+
+        // --- Post Results back to Main Thread ---
+        mainThreadHandler.post(() -> {
+            Log.d(TAG, "Received scan results on main thread.");
+            if (result != null && isAdded() && getActivity() != null) {
+                if (changed) {
                     categorizedApps = result.categorizedApps;
                     updateDashboardBaseUI(result.score, result.highRiskCount, result.mediumRiskCount, result.lowRiskCount, result.noRiskCount);
-                    onRecommendationsLiveDataUpdate(result.recommendations);
                     setupCardClickListeners();
-
-                    Log.d(TAG, "Full UI update complete.");
+                    Log.d(TAG, "Dashboard updated with the new scan result.");
                 } else {
-                    Log.e(TAG, "Scan result was null or fragment detached. UI not updated.");
-                    if(getActivity() != null) Toast.makeText(getActivity(), "Failed to load app permissions.", Toast.LENGTH_SHORT).show();
+                    Log.d(TAG, "Scan result unchanged; kept the rendered dashboard.");
                 }
+                onRecommendationsLiveDataUpdate(result.recommendations);
+            } else {
+                Log.e(TAG, "Scan result was null or fragment detached. UI not updated.");
+                if(getActivity() != null) Toast.makeText(getActivity(), "Failed to load app permissions.", Toast.LENGTH_SHORT).show();
+            }
 
-                // --- HIDE SPINNERS ---
-                if (swipeRefreshLayout != null && swipeRefreshLayout.isRefreshing()) {
-                    swipeRefreshLayout.setRefreshing(false);
-                }
-                if (!isRefresh) {
-                    if (loadingSpinner != null) loadingSpinner.setVisibility(View.GONE);
-                    if (mainContentGroup != null) mainContentGroup.setVisibility(View.VISIBLE);
-                }
-                // --- END HIDE SPINNERS ---
-            });
+            // --- HIDE SPINNERS ---
+            if (swipeRefreshLayout != null && swipeRefreshLayout.isRefreshing()) {
+                swipeRefreshLayout.setRefreshing(false);
+            }
+            if (!isRefresh) {
+                if (loadingSpinner != null) loadingSpinner.setVisibility(View.GONE);
+                if (mainContentGroup != null) mainContentGroup.setVisibility(View.VISIBLE);
+            }
+            // --- END HIDE SPINNERS ---
         });
     }
 
@@ -321,69 +389,74 @@ public class DashboardFragment extends Fragment {
         int noRiskCount = 0;
         Map<PermissionAnalyzer.RiskLevel, List<String>> categorizedApps;
         List<Recommendation> recommendations;
+
+        /** Counts and score are derived from the lists, so they always agree with each other. */
+        static ScanResult fromCategorized(Map<PermissionAnalyzer.RiskLevel, List<String>> categorized) {
+            ScanResult result = new ScanResult();
+            result.highRiskCount = categorized.get(PermissionAnalyzer.RiskLevel.HIGH).size();
+            result.mediumRiskCount = categorized.get(PermissionAnalyzer.RiskLevel.MEDIUM).size();
+            result.lowRiskCount = categorized.get(PermissionAnalyzer.RiskLevel.LOW).size();
+            result.noRiskCount = categorized.get(PermissionAnalyzer.RiskLevel.NO_RISK).size();
+            result.score = RiskScoreModel.scoreOf(result.highRiskCount, result.mediumRiskCount,
+                    result.highRiskCount + result.mediumRiskCount + result.lowRiskCount + result.noRiskCount);
+            result.categorizedApps = categorized;
+            return result;
+        }
+
+        static ScanResult fromSnapshot(DashboardSnapshotStore.Snapshot snapshot) {
+            ScanResult result = new ScanResult();
+            result.score = snapshot.score;
+            result.highRiskCount = snapshot.highRiskCount;
+            result.mediumRiskCount = snapshot.mediumRiskCount;
+            result.lowRiskCount = snapshot.lowRiskCount;
+            result.noRiskCount = snapshot.noRiskCount;
+            result.categorizedApps = snapshot.categorizedAppsByLevel();
+            return result;
+        }
+
+        DashboardSnapshotStore.Snapshot toSnapshot() {
+            return DashboardSnapshotStore.of(score, highRiskCount, mediumRiskCount, lowRiskCount, noRiskCount, categorizedApps);
+        }
+
+        /**
+         * Same score, counts and categorized packages (recommendations are not compared).
+         * Package order is ignored: scans list them in index order, score deltas in none.
+         */
+        boolean sameAs(ScanResult other) {
+            if (other == null) return false;
+            if (score != other.score || highRiskCount != other.highRiskCount || mediumRiskCount != other.mediumRiskCount
+                    || lowRiskCount != other.lowRiskCount || noRiskCount != other.noRiskCount) {
+                return false;
+            }
+            for (PermissionAnalyzer.RiskLevel level : PermissionAnalyzer.RiskLevel.values()) {
+                List<String> mine = categorizedApps != null ? categorizedApps.get(level) : null;
+                List<String> theirs = other.categorizedApps != null ? other.categorizedApps.get(level) : null;
+                if (!samePackages(mine, theirs)) return false;
+            }
+            return true;
+        }
+
+        private static boolean samePackages(List<String> a, List<String> b) {
+            int sizeA = a != null ? a.size() : 0;
+            int sizeB = b != null ? b.size() : 0;
+            if (sizeA != sizeB) return false;
+            if (sizeA == 0 || a.equals(b)) return true;
+            return new HashSet<>(a).equals(new HashSet<>(b));
+        }
     }
 
     // --- Core Scan Logic (Runs in Background) ---
-    private ScanResult performScanAndCategorization(Context context, PackageManager pm) {
+    private ScanResult performScanAndCategorization(Context context, ScanSnapshot snapshot) {
         ScanResult result = new ScanResult();
         try {
-            result.categorizedApps = new HashMap<>();
-            result.categorizedApps.put(PermissionAnalyzer.RiskLevel.HIGH, new ArrayList<>());
-            result.categorizedApps.put(PermissionAnalyzer.RiskLevel.MEDIUM, new ArrayList<>());
-            result.categorizedApps.put(PermissionAnalyzer.RiskLevel.LOW, new ArrayList<>());
-            result.categorizedApps.put(PermissionAnalyzer.RiskLevel.NO_RISK, new ArrayList<>());
-            int totalUserAppsScanned = 0;
-
-            List<PackageInfo> installedApps = pm.getInstalledPackages(PackageManager.GET_PERMISSIONS | PackageManager.GET_META_DATA);
-
-            for (PackageInfo pkgInfo : installedApps) {
-                try {
-                    if (pkgInfo != null && pkgInfo.applicationInfo != null && (pkgInfo.applicationInfo.flags & ApplicationInfo.FLAG_SYSTEM) == 0) {
-                        String packageName = pkgInfo.packageName;
-                        if (packageName.equals(context.getPackageName())) { continue; }
-
-                        totalUserAppsScanned++;
-                        boolean appHasHighRisk = false;
-                        boolean appHasMediumRisk = false;
-                        boolean appHasLowRisk = false;
-                        String[] permissions = pkgInfo.requestedPermissions;
-                        String permissionsString = "";
-
-                        if (permissions != null && permissions.length > 0) {
-                            permissionsString = String.join(",", permissions);
-                            for (String permission : permissions) {
-                                PermissionAnalyzer.RiskLevel risk = analyzer.getPermissionRisk(permission);
-                                int grantStatus = pm.checkPermission(permission, packageName);
-                                boolean isGranted = (grantStatus == PackageManager.PERMISSION_GRANTED);
-
-                                if (isGranted) {
-                                    switch (risk) {
-                                        case HIGH:   appHasHighRisk = true; break;
-                                        case MEDIUM: appHasMediumRisk = true; break;
-                                        case LOW:    appHasLowRisk = true; break;
-                                    }
-                                }
-                            }
-                            if (appHasHighRisk) result.categorizedApps.get(PermissionAnalyzer.RiskLevel.HIGH).add(packageName);
-                            else if (appHasMediumRisk) result.categorizedApps.get(PermissionAnalyzer.RiskLevel.MEDIUM).add(packageName);
-                            else if (appHasLowRisk) result.categorizedApps.get(PermissionAnalyzer.RiskLevel.LOW).add(packageName);
-                            else result.categorizedApps.get(PermissionAnalyzer.RiskLevel.NO_RISK).add(packageName);
-                        } else {
-                            result.categorizedApps.get(PermissionAnalyzer.RiskLevel.NO_RISK).add(packageName);
-                        }
-                        AppPermissions appPerms = new AppPermissions(packageName, permissionsString);
-                        appPermissionsDao.insertOrUpdateAppPermissions(appPerms);
-                    }
-                } catch (Exception e) {
-                    Log.e("DashboardFragment BG", "Error processing/saving package: " + (pkgInfo != null ? pkgInfo.packageName : "null"), e);
-                }
-            }
+            // The coordinator already scanned and persisted the snapshot
+            result.categorizedApps = snapshot.getAppsByRisk();
 
-            result.highRiskCount = result.categorizedApps.get(PermissionAnalyzer.RiskLevel.HIGH).size();
-            result.mediumRiskCount = result.categorizedApps.get(PermissionAnalyzer.RiskLevel.MEDIUM).size();
-            result.lowRiskCount = result.categorizedApps.get(PermissionAnalyzer.RiskLevel.LOW).size();
-            result.noRiskCount = result.categorizedApps.get(PermissionAnalyzer.RiskLevel.NO_RISK).size();
-            result.score = calculateScore(result.highRiskCount, result.mediumRiskCount, totalUserAppsScanned);
+            result.highRiskCount = snapshot.getRiskCount(PermissionAnalyzer.RiskLevel.HIGH);
+            result.mediumRiskCount = snapshot.getRiskCount(PermissionAnalyzer.RiskLevel.MEDIUM);
+            result.lowRiskCount = snapshot.getRiskCount(PermissionAnalyzer.RiskLevel.LOW);
+            result.noRiskCount = snapshot.getRiskCount(PermissionAnalyzer.RiskLevel.NO_RISK);
+            result.score = RiskScoreModel.scoreOf(result.highRiskCount, result.mediumRiskCount, snapshot.getTotalAppCount());
 
             RecommendationDao recDao = AppDatabase.getDatabase(context).recommendationDao();
             result.recommendations = recDao.getAllRecommendations();
@@ -397,16 +470,26 @@ public class DashboardFragment extends Fragment {
     }
 
 
-    // Helper function for score calculation
-    private int calculateScore(int high, int medium, int totalApps) {
-        int score = 100;
-        if (totalApps > 0) {
-            double highPenalty = (double) high / totalApps * 50;
-            double mediumPenalty = (double) medium / totalApps * 25;
-            score = (int) (100 - highPenalty - mediumPenalty);
-            if (score < 0) score = 0;
-        }
-        return score;
+    // --- Incremental score updates (package installed / updated / removed) ---
+    private void onScoreChanged(RiskScoreModel.Score score) {
+        if (executorService == null || executorService.isShutdown()) return;
+        executorService.execute(() -> {
+            // Copied here, off the delta path; may already include later deltas, which is fine
+            Map<PermissionAnalyzer.RiskLevel, List<String>> categorized = RiskScoreModel.getInstance().getCategorizedApps();
+            if (categorized == null) return;
+            ScanResult result = ScanResult.fromCategorized(categorized);
+            if (result.sameAs(lastResult)) return;
+            lastResult = result;
+            if (snapshotStore != null) snapshotStore.save(result.toSnapshot());
+            mainThreadHandler.post(() -> {
+                if (!isAdded() || getActivity() == null) return;
+                categorizedApps = result.categorizedApps;
+                updateDashboardBaseUI(result.score, result.highRiskCount, result.mediumRiskCount, result.lowRiskCount, result.noRiskCount);
+                onRecommendationsLiveDataUpdate(recommendationViewModel.getAllRecommendations().getValue());
+                setupCardClickListeners();
+                Log.d(TAG, "Dashboard updated from score delta (score " + result.score + ").");
+            });
+        });
     }
 
 
@@ -426,6 +509,9 @@ public class DashboardFragment extends Fragment {
         if (mediumCount > 0) displayStrings.add("Check permissions for " + mediumCount + " medium-risk apps");
 
         if (dbRecommendations != null) {
+            if (getContext() != null) {
+                AppDirectory.getInstance(getContext()).resolveRecommendations(dbRecommendations); // in memory
+            }
             for (Recommendation rec : dbRecommendations) {
                 String displayText = rec.description;
                 if (rec.associatedPackageName != null && !rec.associatedPackageName.isEmpty())
@@ -449,27 +535,23 @@ public class DashboardFragment extends Fragment {
         if (sensorLogDao == null || executorService == null) return;
 
         executorService.execute(() -> {
-            List<SensorLogEntry> logEntries = new ArrayList<>();
+            List<SensorAlertSummary> alerts = new ArrayList<>();
             long cutoffTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
 
             try {
-                Context context = getContext();
-                if (context != null) {
-                    logEntries = AppDatabase.getDatabase(context).sensorLogDao().getAllLogsBlocking();
-                }
+                // Grouped in SQL: one row per (package, sensor) alerted in the last 24 h
+                alerts = sensorLogDao.getAlertSummariesSince(cutoffTime, MAX_SENSOR_ALERTS);
             } catch (Exception e) {
-                Log.e(TAG, "Error fetching sensor logs blocking.", e);
+                Log.e(TAG, "Error fetching sensor alert summaries.", e);
             }
 
             List<String> newRecs = new ArrayList<>();
+            Set<String> seen = new HashSet<>(currentRecs);
 
-            for (SensorLogEntry log : logEntries) {
-                if (log.getTimestamp() > cutoffTime && log.isAlert()) {
-                    String recText = "ALERT: " + log.getAppName() + " accessed " + log.getSensorType() + " in background.";
-
-                    if (!currentRecs.contains(recText) && !newRecs.contains(recText)) { // Check both lists
-                        newRecs.add(recText);
-                    }
+            for (SensorAlertSummary alert : alerts) {
+                String recText = "ALERT: " + alert.appName + " accessed " + alert.sensorType + " in background.";
+                if (seen.add(recText)) { // skips texts already shown or already added
+                    newRecs.add(recText);
                 }
             }
 
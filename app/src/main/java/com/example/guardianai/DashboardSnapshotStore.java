@@ -0,0 +1,110 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the last dashboard result (score, risk counts, categorized package lists) as one
+ * small JSON file, so the dashboard can render it on the first frame and revalidate behind it.
+ *
+ * Writes go to a temp file that is renamed into place, so a crash never leaves a torn
+ * snapshot; an unreadable or outdated file is treated as missing.
+ */
+public class DashboardSnapshotStore {
+
+    private static final String TAG = "DashboardSnapshotStore";
+    private static final String FILE_NAME = "dashboard_snapshot.json";
+    private static final int FORMAT_VERSION = 1;
+
+    /** Serialized form; category keys are RiskLevel names. */
+    public static class Snapshot {
+        int version = FORMAT_VERSION;
+        public long savedAt;
+        public int score = -1;
+        public int highRiskCount;
+        public int mediumRiskCount;
+        public int lowRiskCount;
+        public int noRiskCount;
+        public Map<String, List<String>> categorizedApps;
+
+        public Map<PermissionAnalyzer.RiskLevel, List<String>> categorizedAppsByLevel() {
+            Map<PermissionAnalyzer.RiskLevel, List<String>> byLevel = new EnumMap<>(PermissionAnalyzer.RiskLevel.class);
+            if (categorizedApps == null) return byLevel;
+            for (PermissionAnalyzer.RiskLevel level : PermissionAnalyzer.RiskLevel.values()) {
+                List<String> apps = categorizedApps.get(level.name());
+                byLevel.put(level, apps != null ? apps : new ArrayList<>());
+            }
+            return byLevel;
+        }
+    }
+
+    private final File file;
+    private final Gson gson = new Gson();
+
+    public DashboardSnapshotStore(Context context) {
+        this.file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+    }
+
+    /** @return the last saved snapshot, or null if there is none (or it cannot be read). */
+    public Snapshot load() {
+        if (!file.exists()) return null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Snapshot snapshot = gson.fromJson(reader, Snapshot.class);
+            if (snapshot == null || snapshot.version != FORMAT_VERSION || snapshot.categorizedApps == null) {
+                Log.w(TAG, "Ignoring outdated dashboard snapshot.");
+                return null;
+            }
+            return snapshot;
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read dashboard snapshot", e);
+            return null;
+        }
+    }
+
+    public void save(Snapshot snapshot) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            gson.toJson(snapshot, writer);
+            writer.flush();
+            out.getFD().sync();
+        } catch (Exception e) {
+            Log.e(TAG, "Could not write dashboard snapshot", e);
+            return;
+        }
+        if (!tmp.renameTo(file)) Log.e(TAG, "Could not move dashboard snapshot into place.");
+    }
+
+    /** Builds the serialized form from a categorized result. */
+    public static Snapshot of(int score, int high, int medium, int low, int none,
+                              Map<PermissionAnalyzer.RiskLevel, List<String>> categorizedApps) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.savedAt = System.currentTimeMillis();
+        snapshot.score = score;
+        snapshot.highRiskCount = high;
+        snapshot.mediumRiskCount = medium;
+        snapshot.lowRiskCount = low;
+        snapshot.noRiskCount = none;
+        snapshot.categorizedApps = new HashMap<>();
+        for (Map.Entry<PermissionAnalyzer.RiskLevel, List<String>> entry : categorizedApps.entrySet()) {
+            snapshot.categorizedApps.put(entry.getKey().name(), entry.getValue());
+        }
+        return snapshot;
+    }
+}
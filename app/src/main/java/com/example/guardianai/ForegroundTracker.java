@@ -0,0 +1,123 @@
+package com.example.guardianai;
+
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStatsManager;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Process-wide record of which app was in the foreground, and since when.
+ *
+ * Two feeds write into one in-memory interval index (start time -> package):
+ * - syncUsageEvents(): reads only the UsageEvents logged since the previous call (a persistent
+ *   watermark), so each sync is a short incremental query instead of a rescan of a fixed window
+ * - onWindowStateChanged(): TYPE_WINDOW_STATE_CHANGED events from GuardianAccessibilityService
+ *
+ * packageAt(t) answers "who was foreground at time t" from the index without any system call,
+ * so attributing a sensor event is cheap. The index keeps RETENTION_MS of history.
+ */
+public class ForegroundTracker {
+
+    private static final String TAG = "ForegroundTracker";
+    public static final String UNKNOWN = "UNKNOWN";
+    private static final long RETENTION_MS = 10 * 60_000L; // 10 min of history
+    private static final int MAX_ENTRIES = 512;
+
+    private static volatile ForegroundTracker INSTANCE;
+
+    public static ForegroundTracker getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (ForegroundTracker.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ForegroundTracker(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final Context appContext;
+    private final TreeMap<Long, String> intervals = new TreeMap<>(); // guarded by this
+    private long usageWatermark = 0L;                                // guarded by this
+    private volatile String latestPackage = UNKNOWN;
+
+    private ForegroundTracker(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    /**
+     * Consumes the UsageEvents logged since the previous call.
+     * Needs usage access; without it the query returns nothing and the index is unchanged.
+     */
+    public void syncUsageEvents() {
+        UsageStatsManager usm = (UsageStatsManager) appContext.getSystemService(Context.USAGE_STATS_SERVICE);
+        if (usm == null) return;
+
+        long now = System.currentTimeMillis();
+        long from;
+        synchronized (this) {
+            from = usageWatermark > 0 ? usageWatermark : now - RETENTION_MS; // first sync seeds the retained window
+            if (from >= now) return;
+        }
+        try {
+            UsageEvents events = usm.queryEvents(from, now); // [from, now): no overlap with the next sync
+            UsageEvents.Event evt = new UsageEvents.Event();
+            int consumed = 0;
+            synchronized (this) {
+                while (events.hasNextEvent()) {
+                    events.getNextEvent(evt);
+                    if (evt.getEventType() == UsageEvents.Event.MOVE_TO_FOREGROUND && evt.getPackageName() != null) {
+                        putLocked(evt.getTimeStamp(), evt.getPackageName());
+                        consumed++;
+                    }
+                }
+                usageWatermark = now;
+                trimLocked(now);
+            }
+            if (consumed > 0) Log.d(TAG, "Consumed " + consumed + " foreground events since " + from);
+        } catch (Exception e) {
+            Log.w(TAG, "UsageEvents sync failed", e);
+        }
+    }
+
+    /** Accessibility feed: a window of packageName came to the front at timestamp (wall clock). */
+    public void onWindowStateChanged(String packageName, long timestamp) {
+        if (packageName == null) return;
+        synchronized (this) {
+            putLocked(timestamp, packageName);
+            trimLocked(System.currentTimeMillis());
+        }
+    }
+
+    /** Package that was in the foreground at the given wall-clock time, or UNKNOWN. */
+    public String packageAt(long timestamp) {
+        synchronized (this) {
+            Map.Entry<Long, String> entry = intervals.floorEntry(timestamp);
+            return entry != null ? entry.getValue() : UNKNOWN;
+        }
+    }
+
+    /** Most recently observed foreground package (no locking, no system call). */
+    public String getLatestPackage() {
+        return latestPackage;
+    }
+
+    // --- Internal ---
+    private void putLocked(long timestamp, String packageName) {
+        Map.Entry<Long, String> previous = intervals.floorEntry(timestamp);
+        if (previous != null && previous.getValue().equals(packageName)) return; // same interval continues
+        intervals.put(timestamp, packageName);
+        Map.Entry<Long, String> last = intervals.lastEntry();
+        latestPackage = last.getValue();
+    }
+
+    // Drops history older than RETENTION_MS, keeping the interval that was open at the cutoff
+    private void trimLocked(long now) {
+        Long keepFrom = intervals.floorKey(now - RETENTION_MS);
+        if (keepFrom != null) intervals.headMap(keepFrom, false).clear();
+        while (intervals.size() > MAX_ENTRIES) intervals.pollFirstEntry();
+    }
+}
@@ -1,13 +1,12 @@
 package com.example.guardianai;
 
 import android.accessibilityservice.AccessibilityService;
+import android.os.SystemClock;
 import android.view.accessibility.AccessibilityEvent;
 import android.util.Log;
 
 public class GuardianAccessibilityService extends AccessibilityService {
 
-    public static String currentForegroundApp = "Unknown";
-
     @Override
     public void onAccessibilityEvent(AccessibilityEvent event) {
         if (event == null) return;
@@ -15,8 +14,10 @@ public class GuardianAccessibilityService extends AccessibilityService {
         if (event.getEventType() == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
             CharSequence pkg = event.getPackageName();
             if (pkg != null) {
-                currentForegroundApp = pkg.toString();
-                Log.d("GuardianAI", "Foreground app: " + currentForegroundApp);
+                // Event time is uptime-based; ForegroundTracker indexes by wall-clock time
+                long timestamp = System.currentTimeMillis() - (SystemClock.uptimeMillis() - event.getEventTime());
+                ForegroundTracker.getInstance(this).onWindowStateChanged(pkg.toString(), timestamp);
+                Log.d("GuardianAI", "Foreground app: " + pkg);
             }
         }
     }
@@ -0,0 +1,170 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.hardware.camera2.CameraManager;
+import android.media.AudioManager;
+import android.media.AudioRecordingConfiguration;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Event-driven camera / microphone activity source.
+ *
+ * Replaces the per-tick hardware probes (opening android.hardware.Camera and starting an
+ * AudioRecord) with the platform's own availability callbacks:
+ * - CameraManager.AvailabilityCallback: a camera becoming unavailable means another app opened it
+ * - AudioManager.AudioRecordingCallback: a non-empty recording list means the mic is in use
+ *
+ * The listener is told when a sensor goes from idle to busy and back. Callbacks run on a
+ * private background thread. Only the sensors enabled via applyConfig() are registered.
+ * Each start() creates a fresh Registration (thread, callbacks and busy state), so a restart
+ * never shares state with callbacks still draining on the previous thread.
+ */
+public class HardwareActivityMonitor {
+
+    private static final String TAG = "HardwareActivityMonitor";
+
+    public interface Listener {
+        void onHardwareActiveChanged(String sensorType, boolean active);
+    }
+
+    /** One start()..stop() cycle. Busy state is only touched on this registration's thread. */
+    private class Registration {
+        final HandlerThread thread = new HandlerThread("GuardianHardwareMonitor");
+        final Handler handler;
+        final Set<String> busyCameraIds = new HashSet<>(); // ids currently unavailable (opened by some app)
+        boolean micBusy = false;
+        CameraManager cameraManager;
+        AudioManager audioManager;
+
+        final CameraManager.AvailabilityCallback cameraCallback = new CameraManager.AvailabilityCallback() {
+            @Override
+            public void onCameraAvailable(@NonNull String cameraId) {
+                boolean wasBusy = !busyCameraIds.isEmpty();
+                busyCameraIds.remove(cameraId);
+                if (wasBusy && busyCameraIds.isEmpty()) notifyListener("CAMERA", false);
+            }
+
+            @Override
+            public void onCameraUnavailable(@NonNull String cameraId) {
+                boolean wasBusy = !busyCameraIds.isEmpty();
+                busyCameraIds.add(cameraId);
+                if (!wasBusy) notifyListener("CAMERA", true);
+            }
+        };
+
+        final AudioManager.AudioRecordingCallback recordingCallback = new AudioManager.AudioRecordingCallback() {
+            @Override
+            public void onRecordingConfigChanged(List<AudioRecordingConfiguration> configs) {
+                boolean nowBusy = configs != null && !configs.isEmpty();
+                if (nowBusy != micBusy) {
+                    micBusy = nowBusy;
+                    notifyListener("MICROPHONE", nowBusy);
+                }
+            }
+        };
+
+        Registration() {
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private Registration registration; // null while stopped
+
+    private boolean cameraEnabled = true;
+    private boolean micEnabled = true;
+
+    public HardwareActivityMonitor(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /** Registers the callbacks of the enabled sensors. Safe to call repeatedly. */
+    public synchronized void start() {
+        if (registration != null) return;
+        if (!cameraEnabled && !micEnabled) {
+            Log.d(TAG, "Camera and microphone monitoring disabled; no callbacks registered.");
+            return;
+        }
+        Registration reg = new Registration();
+        registration = reg;
+
+        CameraManager cameraManager = cameraEnabled ? (CameraManager) context.getSystemService(Context.CAMERA_SERVICE) : null;
+        if (cameraManager != null) {
+            try {
+                cameraManager.registerAvailabilityCallback(reg.cameraCallback, reg.handler);
+                reg.cameraManager = cameraManager;
+                Log.d(TAG, "Camera availability callback registered.");
+            } catch (Exception e) {
+                Log.w(TAG, "Could not register camera availability callback", e);
+            }
+        }
+
+        AudioManager audioManager = micEnabled ? (AudioManager) context.getSystemService(Context.AUDIO_SERVICE) : null;
+        if (audioManager != null) {
+            try {
+                audioManager.registerAudioRecordingCallback(reg.recordingCallback, reg.handler);
+                reg.audioManager = audioManager;
+                // Seed the current state; the callback only reports later changes
+                List<AudioRecordingConfiguration> active = audioManager.getActiveRecordingConfigurations();
+                reg.handler.post(() -> reg.recordingCallback.onRecordingConfigChanged(active));
+                Log.d(TAG, "Audio recording callback registered.");
+            } catch (Exception e) {
+                Log.w(TAG, "Could not register audio recording callback", e);
+            }
+        }
+    }
+
+    public synchronized void stop() {
+        Registration reg = registration;
+        if (reg == null) return;
+        registration = null;
+        if (reg.cameraManager != null) {
+            try { reg.cameraManager.unregisterAvailabilityCallback(reg.cameraCallback); } catch (Exception ignored) {}
+        }
+        if (reg.audioManager != null) {
+            try { reg.audioManager.unregisterAudioRecordingCallback(reg.recordingCallback); } catch (Exception ignored) {}
+        }
+        // Already-posted callbacks still run (quitSafely) against the old registration's state only
+        reg.thread.quitSafely();
+    }
+
+    /**
+     * Registers only the callbacks of enabled sensors, re-registering if the monitor is running.
+     * A sensor that is switched off while busy reports active=false first.
+     */
+    public synchronized void applyConfig(MonitoringConfig config) {
+        if (config.cameraEnabled == cameraEnabled && config.micEnabled == micEnabled) return;
+        Registration reg = registration;
+        if (reg != null) {
+            final boolean camWasBusy = cameraEnabled && !config.cameraEnabled;
+            final boolean micWasBusy = micEnabled && !config.micEnabled;
+            reg.handler.post(() -> {
+                if (camWasBusy && !reg.busyCameraIds.isEmpty()) notifyListener("CAMERA", false);
+                if (micWasBusy && reg.micBusy) notifyListener("MICROPHONE", false);
+            });
+            stop();
+        }
+        cameraEnabled = config.cameraEnabled;
+        micEnabled = config.micEnabled;
+        start();
+    }
+
+    private void notifyListener(String sensorType, boolean active) {
+        try {
+            listener.onHardwareActiveChanged(sensorType, active);
+        } catch (Exception e) {
+            Log.w(TAG, "Listener failed for " + sensorType, e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat; // Import ActivityCompat
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.work.Constraints;
 import androidx.work.ExistingPeriodicWorkPolicy; // Import WorkManager classes
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
@@ -40,6 +41,8 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.util.ArrayList; // Needed for checking multiple permissions
 import java.util.List; // Needed for checking multiple permissions
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit; // Import TimeUnit
 
 public class MainActivity extends AppCompatActivity {
@@ -51,6 +54,8 @@ public class MainActivity extends AppCompatActivity {
     // Request code for multiple permissions at once (if needed)
     private static final int ALL_PERMISSIONS_REQUEST_CODE = 100;
 
+    // Serializes the resume catch-up, so repeated resumes queue instead of racing
+    private final ExecutorService resumeExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -109,6 +114,7 @@ public class MainActivity extends AppCompatActivity {
         // --- Check for Usage Stats Permission and Schedule Worker ---
         // This runs independently as it uses a different permission mechanism
         checkAndScheduleUsageWorker();
+        scheduleSensorLogCompaction(); // needs no special permission
 
         Log.d(TAG, "onCreate finished.");
     } // End onCreate
@@ -184,12 +190,7 @@ public class MainActivity extends AppCompatActivity {
      * Helper to get user-friendly app name.
      */
     private String getAppNameFromPackage(String packageName) {
-        try {
-            ApplicationInfo ai = getPackageManager().getApplicationInfo(packageName, 0);
-            return getPackageManager().getApplicationLabel(ai).toString();
-        } catch (PackageManager.NameNotFoundException e) {
-            return packageName;
-        }
+        return AppLabelCache.getInstance(this).getLabel(packageName);
     }
 
     // --- Method to Check ALL Necessary Dangerous Permissions ---
@@ -403,6 +404,26 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // --- Schedule daily roll-up / retention of the sensor history ---
+    private void scheduleSensorLogCompaction() {
+        try {
+            Constraints constraints = new Constraints.Builder()
+                    .setRequiresBatteryNotLow(true)
+                    .build();
+            PeriodicWorkRequest compactionRequest =
+                    new PeriodicWorkRequest.Builder(SensorLogCompactionWorker.class, 1, TimeUnit.DAYS)
+                            .setConstraints(constraints)
+                            .build();
+            WorkManager.getInstance(getApplicationContext()).enqueueUniquePeriodicWork(
+                    SensorLogCompactionWorker.UNIQUE_WORK_NAME,
+                    ExistingPeriodicWorkPolicy.KEEP,
+                    compactionRequest);
+            Log.d(TAG, "Scheduled SensorLogCompactionWorker successfully.");
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling SensorLogCompactionWorker", e);
+        }
+    }
+
     // --- Lifecycle Method: Check Permissions Again When User Returns ---
     @Override
     protected void onResume() {
@@ -412,5 +433,22 @@ public class MainActivity extends AppCompatActivity {
         checkAndRequestNeededPermissions();
         // Log usage stats status again
         Log.d(TAG, "onResume: Current Usage Stats Permission Status: " + hasUsageStatsPermission());
+        // Load the risk rules once and pick up package changes the receiver may have missed while we were away
+        final Context appContext = getApplicationContext();
+        resumeExecutor.execute(() -> {
+            RiskRuleLoader.ensureLoaded(appContext);
+            if (!PackageIndex.getInstance(appContext).catchUp()) return;
+            // A cached or running scan predates the change. Invalidate, then rescan so RiskScoreModel
+            // (and the dashboard listening to it) is re-seeded even if no screen asks again
+            ScanCoordinator coordinator = ScanCoordinator.getInstance(appContext);
+            coordinator.invalidate();
+            coordinator.request(false, snapshot -> { });
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        resumeExecutor.shutdown(); // a queued catch-up still runs; it only touches app-scoped state
     }
 } // End of MainActivity class
\ No newline at end of file
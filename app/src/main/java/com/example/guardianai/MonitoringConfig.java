@@ -0,0 +1,43 @@
+package com.example.guardianai;
+
+/**
+ * Immutable snapshot of the sensor monitoring toggles.
+ * Published by SensorMonitorManager and rebuilt only when the preferences change, so hot
+ * paths read plain final fields instead of going through SharedPreferences.
+ */
+public final class MonitoringConfig {
+
+    public final boolean cameraEnabled;
+    public final boolean micEnabled;
+    public final boolean locationEnabled;
+    public final boolean clipboardEnabled;
+
+    public MonitoringConfig(boolean cameraEnabled, boolean micEnabled, boolean locationEnabled, boolean clipboardEnabled) {
+        this.cameraEnabled = cameraEnabled;
+        this.micEnabled = micEnabled;
+        this.locationEnabled = locationEnabled;
+        this.clipboardEnabled = clipboardEnabled;
+    }
+
+    /** True if any sensor that AppOps can report on is being monitored. */
+    public boolean anyAppOpsSensorEnabled() {
+        return cameraEnabled || micEnabled || locationEnabled;
+    }
+
+    public boolean isEnabled(String sensorType) {
+        if (sensorType == null) return false;
+        switch (sensorType) {
+            case "CAMERA":     return cameraEnabled;
+            case "MICROPHONE": return micEnabled;
+            case "LOCATION":   return locationEnabled;
+            case "CLIPBOARD":  return clipboardEnabled;
+            default:           return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoringConfig{camera=" + cameraEnabled + ", mic=" + micEnabled
+                + ", location=" + locationEnabled + ", clipboard=" + clipboardEnabled + "}";
+    }
+}
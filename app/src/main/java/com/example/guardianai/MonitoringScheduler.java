@@ -0,0 +1,160 @@
+package com.example.guardianai;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the monitoring tick on its own thread with at most one tick in flight.
+ *
+ * - start() is idempotent, so repeated onStartCommand() calls never stack periodic tasks.
+ * - Each tick schedules the next one when it finishes (there is only ever one pending run:
+ *   every scheduled run carries a generation token and runs only if it is still the current one).
+ * - A tick that overruns its period does not queue catch-up runs: the missed ticks are
+ *   counted as skipped and the next one is aligned to the following period boundary.
+ * - setPeriodMs() takes effect immediately, measured from the start of the last tick.
+ */
+public class MonitoringScheduler {
+
+    private static final String TAG = "MonitoringScheduler";
+    private static final long MIN_PERIOD_MS = 1_000L;
+    private static final long SHUTDOWN_WAIT_MS = 2_000L;
+
+    private final Runnable tick;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Object lock = new Object();
+
+    private ScheduledFuture<?> pending;
+    private long generation = 0L; // token of the current pending run
+    private boolean started = false;
+    private boolean inFlight = false;
+    private long periodMs;
+    private long lastTickStart = 0L; // elapsedRealtime
+
+    // --- Stats (guarded by lock) ---
+    private long tickCount;
+    private long skippedCount;
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private long totalTickNanos;
+
+    public MonitoringScheduler(Runnable tick, long periodMs) {
+        this.tick = tick;
+        this.periodMs = Math.max(MIN_PERIOD_MS, periodMs);
+    }
+
+    /** Starts ticking immediately. Calling it again while started does nothing. */
+    public void start() {
+        synchronized (lock) {
+            if (started || executor.isShutdown()) return;
+            started = true;
+            scheduleLocked(0L);
+        }
+        Log.d(TAG, "Started with period " + periodMs + " ms.");
+    }
+
+    /** Changes the period; the next tick is re-aligned to the new value. */
+    public void setPeriodMs(long newPeriodMs) {
+        synchronized (lock) {
+            newPeriodMs = Math.max(MIN_PERIOD_MS, newPeriodMs);
+            if (newPeriodMs == periodMs) return;
+            periodMs = newPeriodMs;
+            if (started && !inFlight) {
+                long sinceLast = SystemClock.elapsedRealtime() - lastTickStart;
+                scheduleLocked(Math.max(0L, periodMs - sinceLast));
+            }
+        }
+        Log.d(TAG, "Period changed to " + newPeriodMs + " ms.");
+    }
+
+    public long getPeriodMs() {
+        synchronized (lock) {
+            return periodMs;
+        }
+    }
+
+    /** Runs a tick as soon as possible unless one is already running (coalesced). */
+    public void requestTick() {
+        synchronized (lock) {
+            if (started && !inFlight) scheduleLocked(0L);
+        }
+    }
+
+    /**
+     * Stops ticking and releases the thread. A running tick is allowed to finish; this waits up
+     * to SHUTDOWN_WAIT_MS for it, so the caller can tear down what the tick uses afterwards.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            started = false;
+            generation++; // invalidates a run that was already dequeued
+            if (pending != null) pending.cancel(false);
+            pending = null;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Tick still running after " + SHUTDOWN_WAIT_MS + " ms; not waiting longer.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Log.d(TAG, "Shut down. " + getStats());
+    }
+
+    public String getStats() {
+        synchronized (lock) {
+            long avgMs = tickCount > 0 ? totalTickNanos / tickCount / 1_000_000L : 0L;
+            return "ticks=" + tickCount + ", skipped=" + skippedCount + ", last=" + lastTickNanos / 1_000_000L
+                    + " ms, avg=" + avgMs + " ms, max=" + maxTickNanos / 1_000_000L + " ms";
+        }
+    }
+
+    // --- Internal ---
+    private void scheduleLocked(long delayMs) {
+        if (pending != null) pending.cancel(false); // no-op if already dequeued; the token covers that
+        final long token = ++generation;
+        pending = executor.schedule(() -> runTick(token), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void runTick(long token) {
+        synchronized (lock) {
+            if (!started || inFlight || token != generation) return; // superseded by a newer schedule
+            inFlight = true;
+            pending = null;
+            lastTickStart = SystemClock.elapsedRealtime();
+        }
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        try {
+            tick.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Monitoring tick failed", e);
+        } finally {
+            long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+            synchronized (lock) {
+                inFlight = false;
+                tickCount++;
+                lastTickNanos = elapsedNanos;
+                totalTickNanos += elapsedNanos;
+                if (elapsedNanos > maxTickNanos) maxTickNanos = elapsedNanos;
+
+                long elapsedMs = elapsedNanos / 1_000_000L;
+                long delay;
+                if (elapsedMs < periodMs) {
+                    delay = periodMs - elapsedMs;
+                } else {
+                    // Overrun: drop the missed ticks instead of running them back to back
+                    skippedCount += elapsedMs / periodMs;
+                    delay = periodMs - (elapsedMs % periodMs);
+                    Log.w(TAG, "Tick took " + elapsedMs + " ms (period " + periodMs + " ms); skipped "
+                            + (elapsedMs / periodMs) + " tick(s).");
+                }
+                if (started && !executor.isShutdown()) scheduleLocked(delay);
+            }
+        }
+    }
+}
@@ -1,21 +1,15 @@
 package com.example.guardianai;
 
-import android.annotation.SuppressLint;
-import android.app.AppOpsManager;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.Service;
-import android.app.usage.UsageEvents;
-import android.app.usage.UsageStatsManager;
 import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
-import android.media.AudioFormat;
-import android.media.AudioRecord;
-import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
@@ -24,20 +18,26 @@ import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * MonitoringService for GuardianAI
  *
  * - Android 10+ : AppOpsManager (safe, version-checks & permission checks)
- * - Android 7-9 : Hardware-probe fallback
+ * - Android 11+ : active-op callbacks via AppOpsActivityMonitor on privileged/system builds
+ *                 (WATCH_APPOPS); the AppOps poll then only runs as a low-frequency
+ *                 reconciliation pass. Normal installs rely on the poll.
+ * - All versions: camera/mic availability callbacks (HardwareActivityMonitor)
  *
- * Uses UsageStatsManager to resolve foreground app names (getForegroundAppName).
+ * Attributes hardware/fallback events to the foreground app via ForegroundTracker.
  * Keeps clipboard monitoring, DB logging, notification and debounce logic.
+ *
+ * Sensor toggles are read from SensorMonitorManager's MonitoringConfig snapshot; a disabled
+ * sensor's sources (AppOps ops, hardware callbacks, clipboard listener) are not consulted at all.
  */
 public class MonitoringService extends Service {
 
@@ -46,16 +46,15 @@ public class MonitoringService extends Service {
     private static final int NOTIFICATION_ID = 1;
 
     // Scheduler & monitoring
-    private ScheduledExecutorService scheduler;
-    private static final long SCHEDULER_INTERVAL_SECONDS = 15L; // 15s polling
+    private volatile MonitoringScheduler scheduler; // single in-flight tick, idempotent start
+    private CadenceController cadenceController; // adapts the poll period to device state
 
     // Clipboard
     private ClipboardManager clipboardManager;
     private ClipboardManager.OnPrimaryClipChangedListener clipListener;
 
     // DB & executors
-    private SensorLogDao sensorLogDao;
-    private ExecutorService logExecutor;
+    private SensorLogWriter sensorLogWriter; // write-behind batching for sensor_logs
     private RecommendationDao recommendationDao;
     private ExecutorService databaseExecutor;
     private Handler mainHandler;
@@ -63,6 +62,26 @@ public class MonitoringService extends Service {
     // Preferences / toggles
     private SensorMonitorManager monitorManager;
 
+    // Event-driven AppOps engine (polling becomes a low-frequency reconciliation pass)
+    private AppOpsActivityMonitor appOpsMonitor;
+    private AppOpsProbe appOpsProbe;
+    private long lastAppOpsPollTime = 0L;
+
+    // Camera/mic availability callbacks (replace per-tick hardware probes)
+    private HardwareActivityMonitor hardwareMonitor;
+    // sensor -> attributed pkg; guarded by itself (hardware callbacks can arrive on the threads of
+    // two HardwareActivityMonitor registrations around a restart)
+    private final Map<String, String> hardwareSessionPackages = new HashMap<>();
+
+    // Coalesces repeated observations into (package, sensor) sessions
+    private SensorSessionizer sessionizer;
+
+    // Shared LRU of app labels (detection loop resolves the same few apps repeatedly)
+    private AppLabelCache labelCache;
+
+    // Foreground-app interval index (UsageEvents + accessibility); attribution is a lookup
+    private ForegroundTracker foregroundTracker;
+
     // State & debouncing
     private String currentStatusText = "Protecting device sensors.";
     private long lastCamLogTime = 0L;
@@ -77,6 +96,7 @@ public class MonitoringService extends Service {
         Log.d(TAG, "Service created and initializing.");
 
         monitorManager = new SensorMonitorManager(this);
+        MonitoringConfig config = monitorManager.getConfig();
         createNotificationChannel();
         startForeground(NOTIFICATION_ID, buildForegroundNotification());
 
@@ -84,8 +104,11 @@ public class MonitoringService extends Service {
             AppDatabase db = AppDatabase.getDatabase(getApplicationContext());
             recommendationDao = db.recommendationDao();
             databaseExecutor = Executors.newSingleThreadExecutor();
-            sensorLogDao = db.sensorLogDao();
-            logExecutor = Executors.newSingleThreadExecutor();
+            AppDirectory appDirectory = AppDirectory.getInstance(getApplicationContext());
+            sensorLogWriter = new SensorLogWriter(db.sensorLogDao(), appDirectory);
+            SensorSessionDao sessionDao = db.sensorSessionDao();
+            sessionizer = new SensorSessionizer(sessionDao, appDirectory, databaseExecutor);
+            databaseExecutor.execute(sessionDao::closeDanglingSessions); // left open by a killed process
             mainHandler = new Handler(Looper.getMainLooper());
             Log.d(TAG, "DB and executors initialized.");
         } catch (Exception e) {
@@ -94,9 +117,33 @@ public class MonitoringService extends Service {
             return;
         }
 
-        setupClipboardMonitoring();
+        setupClipboardMonitoring(config);
+
+        foregroundTracker = ForegroundTracker.getInstance(this);
+        labelCache = AppLabelCache.getInstance(this);
+
+        // Created before the event sources, whose callbacks report session changes to it
+        cadenceController = new CadenceController(this, periodMs -> {
+            if (scheduler != null) scheduler.setPeriodMs(periodMs);
+        });
 
-        scheduler = Executors.newSingleThreadScheduledExecutor();
+        if (AppOpsActivityMonitor.isAvailable(this)) {
+            appOpsMonitor = new AppOpsActivityMonitor(this, this::onSensorActiveChanged);
+            appOpsMonitor.applyConfig(config);
+            appOpsMonitor.start();
+        } else {
+            Log.d(TAG, "WATCH_APPOPS not held; AppOps changes are detected by polling.");
+        }
+        appOpsProbe = new AppOpsProbe(this);
+
+        hardwareMonitor = new HardwareActivityMonitor(this, this::onHardwareActiveChanged);
+        hardwareMonitor.applyConfig(config);
+        hardwareMonitor.start();
+
+        monitorManager.setOnConfigChangedListener(this::onConfigChanged);
+
+        scheduler = new MonitoringScheduler(this::checkSensorStatus, cadenceController.getPeriodMs());
+        cadenceController.start();
         startMonitoringLogic();
     }
 
@@ -111,10 +158,18 @@ public class MonitoringService extends Service {
     public void onDestroy() {
         super.onDestroy();
         Log.d(TAG, "Service destroyed. Cleaning up.");
+        if (monitorManager != null) monitorManager.release();
         if (clipboardManager != null && clipListener != null) {
             clipboardManager.removePrimaryClipChangedListener(clipListener);
         }
-        if (scheduler != null) scheduler.shutdownNow();
+        if (appOpsMonitor != null) appOpsMonitor.shutdown();
+        if (hardwareMonitor != null) hardwareMonitor.stop();
+        if (cadenceController != null) cadenceController.stop();
+        if (labelCache != null) Log.d(TAG, "App label cache: " + labelCache.getStats());
+        if (scheduler != null) scheduler.shutdown();
+        if (sessionizer != null) sessionizer.closeAll(System.currentTimeMillis());
+        if (databaseExecutor != null) databaseExecutor.shutdown(); // lets the final session writes finish
+        if (sensorLogWriter != null) sensorLogWriter.close();     // flushes buffered log entries
     }
 
     @Override
@@ -123,29 +178,40 @@ public class MonitoringService extends Service {
     // -------------------------
     // Monitoring core
     // -------------------------
+    // Called from onCreate and every onStartCommand; the scheduler ignores repeated starts
     private void startMonitoringLogic() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.scheduleAtFixedRate(this::checkSensorStatus, 0, 18, TimeUnit.SECONDS);
-
-        }
+        if (scheduler != null) scheduler.start();
     }
 
     private void checkSensorStatus() {
         try {
             long now = System.currentTimeMillis();
-
-            // Android 10+ — try AppOps detection (if usage access granted)
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                detectCameraMicLocationAppOps();
-            } else {
-                // older devices rely on fallback
-                detectCameraMicAccessFallback();
-                detectLocationAccessFallback();
+            MonitoringConfig config = monitorManager.getConfig(); // one snapshot per tick
+
+            // Incremental UsageEvents read per tick (hardware callbacks sync again before attributing)
+            foregroundTracker.syncUsageEvents();
+
+            // Android 10+ — try AppOps detection (if usage access granted).
+            // While the active-op watcher delivers events, the full poll only reconciles.
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && config.anyAppOpsSensorEnabled()) {
+                boolean watching = appOpsMonitor != null && appOpsMonitor.isWatching();
+                if (!watching || now - lastAppOpsPollTime >= appOpsMonitor.getReconcileIntervalMs()) {
+                    detectCameraMicLocationAppOps(config);
+                    lastAppOpsPollTime = now;
+                }
             }
 
-            // Also run fallback detection (debounced) on all versions as a secondary conservative measure
-            detectCameraMicAccessFallback();
-            detectLocationAccessFallback();
+            // Camera/mic come from HardwareActivityMonitor callbacks; only location is still polled here
+            // (debounced) on all versions as a secondary conservative measure
+            if (config.locationEnabled) detectLocationAccessFallback();
+
+            // End polled sessions that have gone quiet; keep the end time of the rest fresh on disk
+            sessionizer.closeIdle(now);
+            sessionizer.checkpoint(now);
+
+            // Tighten the cadence while a session is open, relax it afterwards
+            cadenceController.recordTick();
+            cadenceController.setSessionActive(sessionizer.hasOpenSessions());
 
             // Optionally update notification text (dynamic)
             // updateForegroundNotification(currentStatusText);
@@ -158,9 +224,8 @@ public class MonitoringService extends Service {
     // -------------------------
     // AppOpsManager-based detection (Android 10+)
     // -------------------------
-    private void detectCameraMicLocationAppOps() {
-        AppOpsManager appOps = (AppOpsManager) getSystemService(Context.APP_OPS_SERVICE);
-        if (appOps == null) return;
+    private void detectCameraMicLocationAppOps(MonitoringConfig config) {
+        if (appOpsProbe == null || !appOpsProbe.isAvailable()) return;
 
         PackageManager pm = getPackageManager();
         long now = System.currentTimeMillis();
@@ -174,37 +239,46 @@ public class MonitoringService extends Service {
         }
 
         try {
-            List<ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
-            for (ApplicationInfo appInfo : apps) {
-                String pkg = appInfo.packageName;
+            // One bulk query for every package where the platform allows it
+            Map<String, AppOpsProbe.PackageSnapshot> bulk = appOpsProbe.snapshotAll(config);
+
+            List<PackageInfo> packages = PackageIndex.getInstance(this).getSnapshot().getPackages();
+            for (PackageInfo pkgInfo : packages) {
+                ApplicationInfo appInfo = pkgInfo.applicationInfo;
+                if (appInfo == null) continue;
+                String pkg = pkgInfo.packageName;
                 if (pkg.equals(getPackageName()) || (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) continue;
 
                 try {
-                    long camTime = getLastAccessTimeSafe(appOps, AppOpsManager.OPSTR_CAMERA, appInfo.uid, pkg);
-                    long micTime = getLastAccessTimeSafe(appOps, AppOpsManager.OPSTR_RECORD_AUDIO, appInfo.uid, pkg);
-                    long fineLocTime = getLastAccessTimeSafe(appOps, AppOpsManager.OPSTR_FINE_LOCATION, appInfo.uid, pkg);
-                    long coarseLocTime = getLastAccessTimeSafe(appOps, AppOpsManager.OPSTR_COARSE_LOCATION, appInfo.uid, pkg);
+                    AppOpsProbe.PackageSnapshot ops = bulk != null ? bulk.get(pkg) : appOpsProbe.snapshot(pkg, appInfo.uid, config);
+                    if (ops == null) continue; // bulk result has no entry: no watched op ever used
 
                     // CAMERA
-                    if (monitorManager.isCameraMonitoringEnabled() && camTime > 0 && (now - camTime) < MIN_LOG_INTERVAL_MS) {
+                    if (config.cameraEnabled && ops.cameraTime > 0 && (now - ops.cameraTime) < MIN_LOG_INTERVAL_MS) {
                         String appName = safeGetAppName(pm, pkg);
-                        logSensorEvent(pkg, appName, "CAMERA", true);
-                        Log.i(TAG, "AppOps CAMERA: " + appName);
+                        if (sessionizer.observe(pkg, appName, "CAMERA", ops.cameraTime)) {
+                            logSensorEvent(pkg, appName, "CAMERA", true);
+                            Log.i(TAG, "AppOps CAMERA: " + appName);
+                        }
                     }
 
                     // MICROPHONE
-                    if (monitorManager.isMicMonitoringEnabled() && micTime > 0 && (now - micTime) < MIN_LOG_INTERVAL_MS) {
+                    if (config.micEnabled && ops.micTime > 0 && (now - ops.micTime) < MIN_LOG_INTERVAL_MS) {
                         String appName = safeGetAppName(pm, pkg);
-                        logSensorEvent(pkg, appName, "MICROPHONE", true);
-                        Log.i(TAG, "AppOps MICROPHONE: " + appName);
+                        if (sessionizer.observe(pkg, appName, "MICROPHONE", ops.micTime)) {
+                            logSensorEvent(pkg, appName, "MICROPHONE", true);
+                            Log.i(TAG, "AppOps MICROPHONE: " + appName);
+                        }
                     }
 
                     // LOCATION
-                    long locTime = Math.max(fineLocTime, coarseLocTime);
-                    if (monitorManager.isLocationMonitoringEnabled() && locTime > 0 && (now - locTime) < LOCATION_LOG_INTERVAL_MS) {
+                    long locTime = ops.locationTime();
+                    if (config.locationEnabled && locTime > 0 && (now - locTime) < LOCATION_LOG_INTERVAL_MS) {
                         String appName = safeGetAppName(pm, pkg);
-                        logSensorEvent(pkg, appName, "LOCATION", true);
-                        Log.i(TAG, "AppOps LOCATION: " + appName);
+                        if (sessionizer.observe(pkg, appName, "LOCATION", locTime)) {
+                            logSensorEvent(pkg, appName, "LOCATION", true);
+                            Log.i(TAG, "AppOps LOCATION: " + appName);
+                        }
                     }
                 } catch (SecurityException se) {
                     // ignore system-protected packages
@@ -218,76 +292,78 @@ public class MonitoringService extends Service {
     }
 
     /**
-     * Safe wrapper around AppOps timestamps:
-     * - Android 11+ uses reflection to call getLastAccessedTime()
-     * - Android 10 uses unsafeCheckOpNoThrow() as an approximation
-     * - Returns 0 if unavailable or permission not granted
+     * Callback from AppOpsActivityMonitor: an app started or stopped using a sensor.
+     * Runs on the monitor's callback thread, so it only does cheap checks before logging.
      */
-    @SuppressLint({"MissingPermission", "NewApi"})
-    private long getLastAccessTimeSafe(AppOpsManager appOps, String op, int uid, String pkg) {
-        // Only proceed if usage access granted
-        if (checkCallingOrSelfPermission(android.Manifest.permission.PACKAGE_USAGE_STATS)
-                != PackageManager.PERMISSION_GRANTED) {
-            return 0L;
+    private void onSensorActiveChanged(String pkg, int uid, String sensorType, boolean active) {
+        if (pkg.equals(getPackageName())) return;
+        long now = System.currentTimeMillis();
+        if (!active) {
+            sessionizer.onActive(pkg, null, sensorType, now, false);
+            cadenceController.setSessionActive(sessionizer.hasOpenSessions());
+            return;
         }
 
+        if (!monitorManager.getConfig().isEnabled(sensorType)) return;
+
+        PackageManager pm = getPackageManager();
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) { // API 30+
-                try {
-                    return (long) AppOpsManager.class
-                            .getMethod("getLastAccessedTime", String.class, int.class, String.class)
-                            .invoke(appOps, op, uid, pkg);
-                } catch (Throwable t) {
-                    return 0L;
-                }
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) { // API 29
-                try {
-                    int mode = appOps.unsafeCheckOpNoThrow(op, uid, pkg);
-                    return mode == AppOpsManager.MODE_ALLOWED ? System.currentTimeMillis() : 0L;
-                } catch (SecurityException se) {
-                    Log.w(TAG, "Usage access denied while checking AppOps", se);
-                    return 0L;
-                } catch (Throwable t) {
-                    return 0L;
-                }
-            } else {
-                return 0L;
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "getLastAccessTimeSafe error", e);
-            return 0L;
+            ApplicationInfo ai = pm.getApplicationInfo(pkg, 0);
+            if ((ai.flags & ApplicationInfo.FLAG_SYSTEM) != 0) return;
+        } catch (PackageManager.NameNotFoundException e) {
+            return;
+        }
+
+        String appName = safeGetAppName(pm, pkg);
+        if (sessionizer.onActive(pkg, appName, sensorType, now, true)) {
+            logSensorEvent(pkg, appName, sensorType, true);
+            cadenceController.setSessionActive(true);
+            Log.i(TAG, "AppOps active " + sensorType + ": " + appName);
         }
     }
 
     // -------------------------
-    // Fallback detection (hardware probes) + correlate with foreground app via UsageStats helper
+    // Hardware activity (camera/mic availability callbacks) + correlate with foreground app via ForegroundTracker
     // -------------------------
-    private void detectCameraMicAccessFallback() {
-        long now = System.currentTimeMillis();
-
-        boolean cameraInUse = false;
-        boolean micInUse = false;
-        try { cameraInUse = isCameraBusy(); } catch (Exception ignored) { cameraInUse = false; }
-        try { micInUse = isMicrophoneBusy(); } catch (Exception ignored) { micInUse = false; }
+    private void onHardwareActiveChanged(String sensorType, boolean active) {
+        synchronized (hardwareSessionPackages) { // also covers lastCamLogTime / lastMicLogTime
+            onHardwareActiveChangedLocked(sensorType, active);
+        }
+    }
 
+    private void onHardwareActiveChangedLocked(String sensorType, boolean active) {
+        long now = System.currentTimeMillis();
+        if (!active) {
+            String pkg = hardwareSessionPackages.remove(sensorType);
+            if (pkg != null) sessionizer.onActive(pkg, null, sensorType, now, false);
+            cadenceController.setSessionActive(sessionizer.hasOpenSessions());
+            return;
+        }
+        MonitoringConfig config = monitorManager.getConfig();
         PackageManager pm = getPackageManager();
 
         // CAMERA
-        if (cameraInUse && monitorManager.isCameraMonitoringEnabled() && now - lastCamLogTime > MIN_LOG_INTERVAL_MS) {
+        if ("CAMERA".equals(sensorType) && config.cameraEnabled && now - lastCamLogTime > MIN_LOG_INTERVAL_MS) {
             String pkg = getForegroundPackageSafely();
             String appName = safeGetAppName(pm, pkg);
+            hardwareSessionPackages.put("CAMERA", pkg);
+            sessionizer.onActive(pkg, appName, "CAMERA", now, true);
             logSensorEvent(pkg, appName, "CAMERA", true);
             lastCamLogTime = now;
-            Log.i(TAG, "Fallback CAMERA (possible) by " + appName);
+            cadenceController.setSessionActive(true);
+            Log.i(TAG, "Hardware CAMERA (possible) by " + appName);
         }
 
         // MICROPHONE
-        if (micInUse && monitorManager.isMicMonitoringEnabled() && now - lastMicLogTime > MIN_LOG_INTERVAL_MS) {
+        if ("MICROPHONE".equals(sensorType) && config.micEnabled && now - lastMicLogTime > MIN_LOG_INTERVAL_MS) {
             String pkg = getForegroundPackageSafely();
             String appName = safeGetAppName(pm, pkg);
+            hardwareSessionPackages.put("MICROPHONE", pkg);
+            sessionizer.onActive(pkg, appName, "MICROPHONE", now, true);
             logSensorEvent(pkg, appName, "MICROPHONE", true);
             lastMicLogTime = now;
-            Log.i(TAG, "Fallback MICROPHONE (possible) by " + appName);
+            cadenceController.setSessionActive(true);
+            Log.i(TAG, "Hardware MICROPHONE (possible) by " + appName);
         }
     }
 
@@ -299,7 +375,7 @@ public class MonitoringService extends Service {
             if (lm == null) return;
             boolean gpsEnabled = false;
             try { gpsEnabled = lm.isProviderEnabled(android.location.LocationManager.GPS_PROVIDER); } catch (Exception ignored) {}
-            if (gpsEnabled && monitorManager.isLocationMonitoringEnabled() && now - lastLocationLogTime > LOCATION_LOG_INTERVAL_MS) {
+            if (gpsEnabled && now - lastLocationLogTime > LOCATION_LOG_INTERVAL_MS) {
                 String pkg = getForegroundPackageSafely();
                 String appName = safeGetAppName(getPackageManager(), pkg);
                 logSensorEvent(pkg, appName, "LOCATION", true);
@@ -312,73 +388,52 @@ public class MonitoringService extends Service {
     }
 
     // -------------------------
-    // Hardware probe helpers
+    // Config changes
     // -------------------------
-    private boolean isCameraBusy() {
-        android.hardware.Camera cam = null;
-        try {
-            cam = android.hardware.Camera.open();
-            return false;
-        } catch (RuntimeException e) {
-            return true;
-        } finally {
-            if (cam != null) {
-                try { cam.release(); } catch (Exception ignored) {}
-            }
-        }
-    }
-
-    private boolean isMicrophoneBusy() {
-        AudioRecord recorder = null;
-        try {
-            int bufferSize = AudioRecord.getMinBufferSize(44100,
-                    AudioFormat.CHANNEL_IN_MONO,
-                    AudioFormat.ENCODING_PCM_16BIT);
-            recorder = new AudioRecord(MediaRecorder.AudioSource.MIC,
-                    44100,
-                    AudioFormat.CHANNEL_IN_MONO,
-                    AudioFormat.ENCODING_PCM_16BIT,
-                    Math.max(bufferSize, 2048));
-            recorder.startRecording();
-            int state = recorder.getRecordingState();
-            return state != AudioRecord.RECORDSTATE_RECORDING;
-        } catch (Exception e) {
-            return true;
-        } finally {
-            if (recorder != null) {
-                try { recorder.stop(); recorder.release(); } catch (Exception ignored) {}
-            }
+    /** Re-registers sources after a toggle changed in SensorMonitorManager (main thread). */
+    private void onConfigChanged(MonitoringConfig config) {
+        Log.d(TAG, "Monitoring config changed: " + config);
+        if (appOpsMonitor != null) {
+            appOpsMonitor.applyConfig(config);
+            appOpsMonitor.start();
         }
+        if (hardwareMonitor != null) hardwareMonitor.applyConfig(config);
+        setupClipboardMonitoring(config);
     }
 
     // -------------------------
     // Clipboard monitoring
     // -------------------------
-    private void setupClipboardMonitoring() {
-        clipboardManager = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
-        if (clipboardManager == null) return;
-        clipListener = () -> {
-            if (monitorManager.isClipboardMonitoringEnabled()) {
+    // The listener is only registered while clipboard monitoring is enabled
+    private void setupClipboardMonitoring(MonitoringConfig config) {
+        if (clipboardManager == null) {
+            clipboardManager = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+            if (clipboardManager == null) return;
+        }
+        if (config.clipboardEnabled && clipListener == null) {
+            clipListener = () -> {
                 Log.i(TAG, "CLIPBOARD ACCESS DETECTED!");
                 logSensorEvent("SYSTEM", "System Clipboard", "CLIPBOARD", false);
-            }
-        };
-        clipboardManager.addPrimaryClipChangedListener(clipListener);
+            };
+            clipboardManager.addPrimaryClipChangedListener(clipListener);
+        } else if (!config.clipboardEnabled && clipListener != null) {
+            clipboardManager.removePrimaryClipChangedListener(clipListener);
+            clipListener = null;
+        }
     }
 
     // -------------------------
     // DB logging
     // -------------------------
     private void logSensorEvent(String packageName, String appName, String sensorType, boolean isAlert) {
-        if (sensorLogDao == null || logExecutor == null) {
+        if (sensorLogWriter == null) {
             Log.e(TAG, "Logging system not initialized!");
             return;
         }
         SensorLogEntry entry = new SensorLogEntry(System.currentTimeMillis(), packageName, appName, sensorType, isAlert);
-        logExecutor.execute(() -> {
-            sensorLogDao.insertLogEntry(entry);
+        if (sensorLogWriter.enqueue(entry)) {
             Log.i(TAG, "Sensor Logged: " + sensorType + " by " + appName + (isAlert ? " (ALERT!)" : ""));
-        });
+        }
     }
 
     // -------------------------
@@ -386,40 +441,18 @@ public class MonitoringService extends Service {
     // -------------------------
     private String safeGetAppName(PackageManager pm, String pkg) {
         if (pkg == null || pkg.isEmpty() || "UNKNOWN".equals(pkg)) return "Unknown App";
-        try {
-            ApplicationInfo ai = pm.getApplicationInfo(pkg, 0);
-            return pm.getApplicationLabel(ai).toString();
-        } catch (PackageManager.NameNotFoundException e) {
-            return pkg;
-        }
+        return labelCache.getLabel(pkg);
     }
 
     /**
-     * Attempts to derive the current foreground package using UsageStatsManager.
-     * Returns package name or "UNKNOWN" on failure.
-     * Requires PACKAGE_USAGE_STATS granted by user (Settings > Usage access).
+     * Foreground package at the current time from ForegroundTracker's index (no system call).
+     * Returns "UNKNOWN" if neither usage access nor the accessibility feed has reported anything.
      */
     private String getForegroundPackageSafely() {
-        try {
-            UsageStatsManager usm = (UsageStatsManager) getSystemService(Context.USAGE_STATS_SERVICE);
-            if (usm == null) return "UNKNOWN";
-
-            long now = System.currentTimeMillis();
-            UsageEvents events = usm.queryEvents(now - 15_000L, now); // last 15s
-            UsageEvents.Event evt = new UsageEvents.Event();
-            String lastPkg = "UNKNOWN";
-
-            while (events.hasNextEvent()) {
-                events.getNextEvent(evt);
-                if (evt.getEventType() == UsageEvents.Event.MOVE_TO_FOREGROUND) {
-                    lastPkg = evt.getPackageName();
-                }
-            }
-            return lastPkg != null ? lastPkg : "UNKNOWN";
-        } catch (Exception e) {
-            Log.w(TAG, "getForegroundPackageSafely failed", e);
-            return "UNKNOWN";
-        }
+        // Callbacks arrive between ticks: catch up on the events since the last sync first, or an
+        // app that just came to the front would be attributed to its predecessor
+        foregroundTracker.syncUsageEvents();
+        return foregroundTracker.packageAt(System.currentTimeMillis());
     }
 
     // -------------------------
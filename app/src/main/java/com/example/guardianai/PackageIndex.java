@@ -0,0 +1,190 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.content.pm.ChangedPackages;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide index of installed packages (with permissions and metadata).
+ *
+ * The full package list is loaded from PackageManager once; after that it is kept current
+ * incrementally from AppUpdateReceiver events and a getChangedPackages() catch-up when the
+ * app resumes. Readers get an immutable Snapshot, so they can iterate it on any thread
+ * while updates publish a new one.
+ *
+ * Grant state is only as fresh as the last load of a package: runtime grants and revokes raise
+ * no package broadcast and do not show up in getChangedPackages(). refresh() re-reads every
+ * package with one getInstalledPackages() call; full scans call it, so after a scan the
+ * requestedPermissionsFlags of every PackageInfo are current as of that scan.
+ *
+ * getSnapshot() may hit PackageManager on first use, so call it off the main thread.
+ */
+public class PackageIndex {
+
+    private static final String TAG = "PackageIndex";
+    static final int PACKAGE_FLAGS = PackageManager.GET_PERMISSIONS | PackageManager.GET_META_DATA;
+
+    private static volatile PackageIndex INSTANCE;
+
+    public static PackageIndex getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (PackageIndex.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PackageIndex(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /** Immutable view of the installed packages at one point in time. */
+    public static final class Snapshot {
+        private final List<PackageInfo> packages;
+        private final Map<String, PackageInfo> byName;
+
+        Snapshot(Map<String, PackageInfo> byName) {
+            this.byName = Collections.unmodifiableMap(byName);
+            this.packages = Collections.unmodifiableList(new ArrayList<>(byName.values()));
+        }
+
+        public List<PackageInfo> getPackages() {
+            return packages;
+        }
+
+        public PackageInfo get(String packageName) {
+            return byName.get(packageName);
+        }
+
+        public int size() {
+            return packages.size();
+        }
+    }
+
+    private final Context appContext;
+    private volatile Snapshot snapshot; // null until the first load
+    private int sequenceNumber = 0;     // for getChangedPackages (API 26+)
+
+    private PackageIndex(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    /** Returns the current snapshot, loading the full package list on first use. */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot == null) {
+                Snapshot loaded = loadAll();
+                if (loaded == null) return new Snapshot(new LinkedHashMap<>()); // retry on next call
+                snapshot = loaded;
+            }
+            return snapshot;
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Re-reads the full package list, including grant flags, in one PackageManager call and
+     * replaces the snapshot.
+     * @return the new snapshot, or the current one if PackageManager failed
+     */
+    public synchronized Snapshot refresh() {
+        Snapshot loaded = loadAll();
+        if (loaded != null) snapshot = loaded;
+        else Log.w(TAG, "Refresh failed; keeping the previous package list");
+        return snapshot != null ? snapshot : new Snapshot(new LinkedHashMap<>());
+    }
+
+    /** Re-reads one package after it was installed or updated. */
+    public synchronized void onPackageChanged(String packageName) {
+        if (snapshot == null) return; // will be picked up by the first full load
+        PackageManager pm = appContext.getPackageManager();
+        Map<String, PackageInfo> next = toMap(snapshot);
+        try {
+            next.put(packageName, pm.getPackageInfo(packageName, PACKAGE_FLAGS));
+        } catch (PackageManager.NameNotFoundException e) {
+            next.remove(packageName);
+        }
+        snapshot = new Snapshot(next);
+        Log.d(TAG, "Package updated in index: " + packageName);
+    }
+
+    public synchronized void onPackageRemoved(String packageName) {
+        if (snapshot == null || snapshot.get(packageName) == null) return;
+        Map<String, PackageInfo> next = toMap(snapshot);
+        next.remove(packageName);
+        snapshot = new Snapshot(next);
+        Log.d(TAG, "Package removed from index: " + packageName);
+    }
+
+    /**
+     * Applies changes the broadcast receiver may have missed (e.g. while the process was dead or
+     * implicit broadcasts were not delivered) using PackageManager.getChangedPackages().
+     * @return true if the snapshot changed; callers then invalidate anything derived from it
+     */
+    public synchronized boolean catchUp() {
+        if (snapshot == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return false;
+        PackageManager pm = appContext.getPackageManager();
+        try {
+            ChangedPackages changed = pm.getChangedPackages(sequenceNumber);
+            if (changed == null) return false; // nothing changed since the last check
+            sequenceNumber = changed.getSequenceNumber();
+
+            Map<String, PackageInfo> next = toMap(snapshot);
+            for (String packageName : changed.getPackageNames()) {
+                try {
+                    next.put(packageName, pm.getPackageInfo(packageName, PACKAGE_FLAGS));
+                } catch (PackageManager.NameNotFoundException e) {
+                    next.remove(packageName);
+                }
+            }
+            snapshot = new Snapshot(next);
+            Log.d(TAG, "Caught up on " + changed.getPackageNames().size() + " changed packages.");
+            return !changed.getPackageNames().isEmpty();
+        } catch (Exception e) {
+            Log.w(TAG, "getChangedPackages catch-up failed", e);
+            return false;
+        }
+    }
+
+    // --- Internal ---
+    private Snapshot loadAll() {
+        PackageManager pm = appContext.getPackageManager();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            // Record the current sequence number first so nothing installed during the load is missed
+            try {
+                ChangedPackages changed = pm.getChangedPackages(0);
+                if (changed != null) sequenceNumber = changed.getSequenceNumber();
+            } catch (Exception e) {
+                Log.w(TAG, "Could not read package sequence number", e);
+            }
+        }
+        Map<String, PackageInfo> byName = new LinkedHashMap<>();
+        try {
+            for (PackageInfo info : pm.getInstalledPackages(PACKAGE_FLAGS)) {
+                if (info != null) byName.put(info.packageName, info);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to load installed packages", e);
+            return null;
+        }
+        Log.d(TAG, "Package index loaded with " + byName.size() + " packages.");
+        return new Snapshot(byName);
+    }
+
+    private static Map<String, PackageInfo> toMap(Snapshot s) {
+        return new LinkedHashMap<>(s.byName);
+    }
+}
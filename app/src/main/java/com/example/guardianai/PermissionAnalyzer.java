@@ -1,5 +1,8 @@
 package com.example.guardianai;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 public class PermissionAnalyzer {
 
@@ -11,49 +14,75 @@ public class PermissionAnalyzer {
         NO_RISK
     }
 
+    // --- HIGH RISK PERMISSIONS ---
+    static final String[] HIGH_RISK_PERMISSIONS = {
+            "android.permission.READ_CONTACTS",
+            "android.permission.WRITE_CONTACTS",
+            "android.permission.READ_SMS",
+            "android.permission.SEND_SMS",
+            "android.permission.RECEIVE_SMS",
+            "android.permission.CAMERA",
+            "android.permission.RECORD_AUDIO",
+            "android.permission.READ_CALENDAR",
+            "android.permission.WRITE_CALENDAR",
+            "android.permission.BIND_ACCESSIBILITY_SERVICE",
+            "android.permission.READ_CALL_LOG",
+            "android.permission.PROCESS_OUTGOING_CALLS",
+            "android.permission.REQUEST_INSTALL_PACKAGES"
+    };
+
+    // --- MEDIUM RISK PERMISSIONS ---
+    static final String[] MEDIUM_RISK_PERMISSIONS = {
+            "android.permission.ACCESS_FINE_LOCATION",
+            "android.permission.ACCESS_COARSE_LOCATION",
+            "android.permission.READ_EXTERNAL_STORAGE",
+            "android.permission.WRITE_EXTERNAL_STORAGE",
+            "android.permission.GET_ACCOUNTS",
+            "android.permission.READ_PHONE_STATE"
+    };
+
+    // --- LOW RISK PERMISSIONS ---
+    static final String[] LOW_RISK_PERMISSIONS = {
+            "android.permission.INTERNET",
+            "android.permission.ACCESS_NETWORK_STATE",
+            "android.permission.BLUETOOTH",
+            "android.permission.VIBRATE",
+            "android.permission.WAKE_LOCK"
+    };
+
+    // --- DANGEROUS COMBINATIONS (all must be granted; raises the app to HIGH) ---
+    static final Map<String, String[]> DANGEROUS_COMBINATIONS = new LinkedHashMap<>();
+    static {
+        DANGEROUS_COMBINATIONS.put("Can record audio and track location", new String[] {
+                "android.permission.RECORD_AUDIO", "android.permission.ACCESS_FINE_LOCATION"});
+        DANGEROUS_COMBINATIONS.put("Can read SMS and send data online", new String[] {
+                "android.permission.READ_SMS", "android.permission.INTERNET"});
+        DANGEROUS_COMBINATIONS.put("Can read contacts and send data online", new String[] {
+                "android.permission.READ_CONTACTS", "android.permission.INTERNET"});
+        DANGEROUS_COMBINATIONS.put("Can read call logs and send data online", new String[] {
+                "android.permission.READ_CALL_LOG", "android.permission.INTERNET"});
+        // Each MEDIUM on its own; together with INTERNET the data can leave the device
+        DANGEROUS_COMBINATIONS.put("Can send precise location online", new String[] {
+                "android.permission.ACCESS_FINE_LOCATION", "android.permission.INTERNET"});
+        DANGEROUS_COMBINATIONS.put("Can send phone identifiers online", new String[] {
+                "android.permission.READ_PHONE_STATE", "android.permission.INTERNET"});
+    }
+
     // This is the "engine." It takes a permission and returns its risk level.
+    // Backed by the compiled table (one hash lookup + array read).
     public RiskLevel getPermissionRisk(String permission) {
         if (permission == null) {
             return RiskLevel.NO_RISK;
         }
+        return CompiledRiskModel.getDefault().riskOf(permission);
+    }
 
-        switch (permission) {
-            // --- HIGH RISK PERMISSIONS ---
-            case "android.permission.READ_CONTACTS":
-            case "android.permission.WRITE_CONTACTS":
-            case "android.permission.READ_SMS":
-            case "android.permission.SEND_SMS":
-            case "android.permission.RECEIVE_SMS":
-            case "android.permission.CAMERA":
-            case "android.permission.RECORD_AUDIO":
-            case "android.permission.READ_CALENDAR":
-            case "android.permission.WRITE_CALENDAR":
-            case "android.permission.BIND_ACCESSIBILITY_SERVICE":
-            case "android.permission.READ_CALL_LOG":
-            case "android.permission.PROCESS_OUTGOING_CALLS":
-            case "android.permission.REQUEST_INSTALL_PACKAGES":
-                return RiskLevel.HIGH;
-
-            // --- MEDIUM RISK PERMISSIONS ---
-            case "android.permission.ACCESS_FINE_LOCATION":
-            case "android.permission.ACCESS_COARSE_LOCATION":
-            case "android.permission.READ_EXTERNAL_STORAGE":
-            case "android.permission.WRITE_EXTERNAL_STORAGE":
-            case "android.permission.GET_ACCOUNTS":
-            case "android.permission.READ_PHONE_STATE":
-                return RiskLevel.MEDIUM;
-
-            // --- LOW RISK PERMISSIONS ---
-            case "android.permission.INTERNET":
-            case "android.permission.ACCESS_NETWORK_STATE":
-            case "android.permission.BLUETOOTH":
-            case "android.permission.VIBRATE":
-            case "android.permission.WAKE_LOCK":
-                return RiskLevel.LOW;
-
-            // --- NO RISK (Considered safe) ---
-            default:
-                return RiskLevel.NO_RISK;
-        }
+    // Builds the compiled model from the tables above
+    static CompiledRiskModel compileDefaultModel() {
+        Map<String, RiskLevel> rules = new LinkedHashMap<>();
+        for (String p : HIGH_RISK_PERMISSIONS) rules.put(p, RiskLevel.HIGH);
+        for (String p : MEDIUM_RISK_PERMISSIONS) rules.put(p, RiskLevel.MEDIUM);
+        for (String p : LOW_RISK_PERMISSIONS) rules.put(p, RiskLevel.LOW);
+        return new CompiledRiskModel(rules, DANGEROUS_COMBINATIONS);
     }
-}
\ No newline at end of file
+}
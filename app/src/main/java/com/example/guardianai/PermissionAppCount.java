@@ -0,0 +1,7 @@
+package com.example.guardianai;
+
+/** Result row of the per-permission grid count query. */
+public class PermissionAppCount {
+    public String permission;
+    public int appCount;
+}
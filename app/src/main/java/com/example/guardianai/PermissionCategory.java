@@ -6,6 +6,7 @@ public class PermissionCategory {
     int iconResId; // e.g., R.drawable.ic_camera
     int appCount;
     int totalAppCount;
+    PermissionAnalyzer.RiskLevel riskLevel = PermissionAnalyzer.RiskLevel.NO_RISK; // set with the counts
 
     // --- Constructor ---
     public PermissionCategory(String name, String permissionConstant, int iconResId) {
@@ -37,6 +38,10 @@ public class PermissionCategory {
         return totalAppCount;
     }
 
+    public PermissionAnalyzer.RiskLevel getRiskLevel() {
+        return riskLevel;
+    }
+
     // --- Setters ---
     public void setAppCount(int appCount) {
         this.appCount = appCount;
@@ -45,4 +50,8 @@ public class PermissionCategory {
     public void setTotalAppCount(int totalAppCount) {
         this.totalAppCount = totalAppCount;
     }
+
+    public void setRiskLevel(PermissionAnalyzer.RiskLevel riskLevel) {
+        this.riskLevel = riskLevel;
+    }
 }
\ No newline at end of file
@@ -53,21 +53,17 @@ public class PermissionCheckWorker extends Worker {
         Context context = getApplicationContext();
         PackageManager pm = context.getPackageManager();
         PermissionAnalyzer analyzer = new PermissionAnalyzer();
-        AppPermissionsDao dao = AppDatabase.getDatabase(context).appPermissionsDao();
+        AppPermissionsStore store = AppPermissionsStore.getInstance(context);
+        RiskRuleLoader.ensureLoaded(context);
 
         try {
             // --- Get NEW permissions ---
             PackageInfo newInfo = pm.getPackageInfo(packageName, PackageManager.GET_PERMISSIONS);
             String[] newPermissionsArray = newInfo.requestedPermissions;
             Set<String> newPermissions = (newPermissionsArray != null) ? new HashSet<>(Arrays.asList(newPermissionsArray)) : new HashSet<>();
-            String newPermissionsString = String.join(",", newPermissions);
 
-            // --- Get OLD permissions from DB ---
-            String oldPermissionsString = dao.getPermissionsForApp(packageName);
-            Set<String> oldPermissions = new HashSet<>();
-            if (oldPermissionsString != null && !oldPermissionsString.isEmpty()) {
-                oldPermissions.addAll(Arrays.asList(oldPermissionsString.split(",")));
-            }
+            // --- Get OLD permissions from DB (app_permission join) ---
+            Set<String> oldPermissions = store.getStoredPermissions(packageName);
             Log.d(TAG, "Old permissions for " + packageName + ": " + oldPermissions.size());
             Log.d(TAG, "New permissions for " + packageName + ": " + newPermissions.size());
 
@@ -91,7 +87,7 @@ public class PermissionCheckWorker extends Worker {
 
                 // If risky permissions were added, send notification
                 if (!escalatedRiskyPermissions.isEmpty()) {
-                    String appLabel = newInfo.applicationInfo.loadLabel(pm).toString();
+                    String appLabel = AppLabelCache.getInstance(context).getLabel(newInfo);
                     sendEscalationNotification(context, appLabel, packageName, escalatedRiskyPermissions);
                 }
             } else {
@@ -99,8 +95,7 @@ public class PermissionCheckWorker extends Worker {
             }
 
             // --- Update the database with the new permissions list ---
-            AppPermissions updatedEntry = new AppPermissions(packageName, newPermissionsString);
-            dao.insertOrUpdateAppPermissions(updatedEntry);
+            store.saveApp(newInfo);
             Log.d(TAG, "Updated permissions in DB for " + packageName);
 
             return Result.success(); // Work completed successfully
@@ -109,7 +104,7 @@ public class PermissionCheckWorker extends Worker {
             Log.e(TAG, "Could not get package info for updated app: " + packageName, e);
             // App might have been uninstalled between update broadcast and worker running
             // Consider removing from DB if appropriate
-            // dao.deleteAppPermissions(packageName);
+            // store.deleteApp(packageName);
             return Result.failure(); // Indicate failure
         } catch (Exception e) {
             Log.e(TAG, "Error during permission comparison worker for " + packageName, e);
@@ -0,0 +1,23 @@
+package com.example.guardianai;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/** Dictionary of permission names; app_permission rows refer to them by integer id. */
+@Entity(tableName = "permissions", indices = {@Index(value = "name", unique = true)})
+public class PermissionDefinition {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    @NonNull
+    @ColumnInfo(name = "name")
+    public String name; // e.g. "android.permission.CAMERA"
+
+    public PermissionDefinition(@NonNull String name) {
+        this.name = name;
+    }
+}
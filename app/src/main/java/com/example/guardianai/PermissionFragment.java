@@ -64,18 +64,18 @@ public class PermissionFragment extends Fragment {
     private AppRiskAdapter appListAdapter;
 
     // --- Data Holders ---
-    private Map<String, List<PackageInfo>> permissionGroupMap = new HashMap<>();
+    private int totalAppCount = 0;
     private List<AppModel> allAppsList = new ArrayList<>();
     private List<PermissionCategory> categoryList = new ArrayList<>();
     private List<String> unusedAppPackages = new ArrayList<>();
-    private int totalAppCount = 0;
 
     // Analyzer (from your Dashboard)
-    private PermissionAnalyzer analyzer;
+    private AppPermissionsDao permissionsDao; // grid counts / per-permission app lists
 
     // --- Threading Components ---
     private ExecutorService executorService;
     private Handler mainThreadHandler;
+    private ScanCoordinator.Subscription pendingScan;
 
     @Nullable
     @Override
@@ -89,7 +89,7 @@ public class PermissionFragment extends Fragment {
         btnReviewUnused = view.findViewById(R.id.btn_review_unused);
         searchView = view.findViewById(R.id.app_search_view); // <-- ADDED
 
-        analyzer = new PermissionAnalyzer();
+        permissionsDao = AppDatabase.getDatabase(getContext()).appPermissionsDao();
 
         // --- Setup adapters, listeners, and threads ---
         setupGrid();
@@ -114,20 +114,19 @@ public class PermissionFragment extends Fragment {
         gridAdapter.setOnCategoryClickListener(category -> {
             Log.d(TAG, "Clicked on category: " + category.getName());
 
-            List<PackageInfo> appsWithPermission = permissionGroupMap.get(category.getPermissionConstant());
-
-            if (appsWithPermission == null || appsWithPermission.isEmpty()) {
-                Toast.makeText(getContext(), "No apps found with this permission.", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            ArrayList<String> packageNames = new ArrayList<>();
-            for (PackageInfo pkg : appsWithPermission) {
-                packageNames.add(pkg.packageName);
-            }
-
-            PermissionAnalyzer.RiskLevel riskLevel = analyzer.getPermissionRisk(category.getPermissionConstant());
-            navigateToAppList(packageNames, riskLevel);
+            // Indexed lookup on app_permission instead of an in-memory permission map
+            String permission = category.getPermissionConstant();
+            executorService.execute(() -> {
+                ArrayList<String> packageNames = new ArrayList<>(permissionsDao.getAppsWithPermission(permission));
+                mainThreadHandler.post(() -> {
+                    if (getContext() == null || !isAdded()) return;
+                    if (packageNames.isEmpty()) {
+                        Toast.makeText(getContext(), "No apps found with this permission.", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    navigateToAppList(packageNames, category.getRiskLevel());
+                });
+            });
         });
     }
 
@@ -185,100 +184,82 @@ public class PermissionFragment extends Fragment {
 
 
     private void loadData() {
-        Log.d(TAG, "Submitting scan task to background thread...");
+        Log.d(TAG, "Requesting scan from coordinator...");
 
-        executorService.execute(() -> {
-            if (getContext() == null) return;
+        // Shares an in-flight or recent scan with the dashboard instead of starting its own
+        pendingScan = ScanCoordinator.getInstance(getContext()).request(false, snapshot -> {
+            if (!executorService.isShutdown()) executorService.execute(() -> onScanSnapshot(snapshot));
+        });
+    }
 
-            scanAllPermissions();
-            processGridCategories();
-            findUnusedApps();
-            Log.d(TAG, "Background scan complete.");
+    private void onScanSnapshot(ScanSnapshot snapshot) {
+        if (getContext() == null || snapshot == null) return;
 
-            mainThreadHandler.post(() -> {
-                if (getContext() == null || !isAdded()) {
-                    return;
-                }
+        scanAllPermissions(snapshot);
+        processGridCategories();
+        findUnusedApps();
+        Log.d(TAG, "Background scan complete.");
 
-                gridAdapter.updateData(categoryList);
-                appListAdapter.updateData(allAppsList);
-                Log.d(TAG, "UI adapters updated on main thread.");
+        mainThreadHandler.post(() -> {
+            if (getContext() == null || !isAdded()) {
+                return;
+            }
 
-                if (btnReviewUnused.getText().toString().equals("Grant Permission")) {
-                    return;
-                }
+            gridAdapter.updateData(categoryList);
+            appListAdapter.updateData(allAppsList);
+            Log.d(TAG, "UI adapters updated on main thread.");
 
-                int unusedCount = unusedAppPackages.size();
-                if (unusedCount > 0) {
-                    tvUnusedSubtitle.setText(unusedCount + " apps can be safely revoked.");
-                } else {
-                    tvUnusedSubtitle.setText("No unused apps found.");
-                }
-                btnReviewUnused.setEnabled(unusedCount > 0);
-            });
+            if (btnReviewUnused.getText().toString().equals("Grant Permission")) {
+                return;
+            }
+
+            int unusedCount = unusedAppPackages.size();
+            if (unusedCount > 0) {
+                tvUnusedSubtitle.setText(unusedCount + " apps can be safely revoked.");
+            } else {
+                tvUnusedSubtitle.setText("No unused apps found.");
+            }
+            btnReviewUnused.setEnabled(unusedCount > 0);
         });
     }
 
-    private void scanAllPermissions() {
+    private void scanAllPermissions(ScanSnapshot snapshot) {
         if (getContext() == null) return;
 
-        permissionGroupMap.clear();
         allAppsList.clear();
-        totalAppCount = 0;
 
         PackageManager pm = getContext().getPackageManager();
-        List<PackageInfo> packages = pm.getInstalledPackages(PackageManager.GET_PERMISSIONS | PackageManager.GET_META_DATA);
-
-        for (PackageInfo packageInfo : packages) {
-            try {
-                if ((packageInfo.applicationInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) {
-                    continue;
-                }
-                if (packageInfo.packageName.equals(getContext().getPackageName())) {
-                    continue;
-                }
-
-                totalAppCount++;
-                String packageName = packageInfo.packageName;
-                String appName = packageInfo.applicationInfo.loadLabel(pm).toString();
-                Drawable appIcon = packageInfo.applicationInfo.loadIcon(pm);
-                String risk = "Low";
-
-                String[] requestedPermissions = packageInfo.requestedPermissions;
-                if (requestedPermissions != null) {
-                    boolean hasHigh = false;
-                    boolean hasMedium = false;
-
-                    for (int i = 0; i < requestedPermissions.length; i++) {
-                        if ((packageInfo.requestedPermissionsFlags[i] & PackageInfo.REQUESTED_PERMISSION_GRANTED) != 0) {
-                            String permission = requestedPermissions[i];
-
-                            List<PackageInfo> appList = permissionGroupMap.get(permission);
-                            if (appList == null) {
-                                appList = new ArrayList<>();
-                                permissionGroupMap.put(permission, appList);
-                            }
-                            appList.add(packageInfo);
-
-                            PermissionAnalyzer.RiskLevel level = analyzer.getPermissionRisk(permission);
-                            if (level == PermissionAnalyzer.RiskLevel.HIGH) hasHigh = true;
-                            if (level == PermissionAnalyzer.RiskLevel.MEDIUM) hasMedium = true;
-                        }
-                    }
-
-                    if (hasHigh) risk = "High";
-                    else if (hasMedium) risk = "Medium";
+        AppLabelCache labelCache = AppLabelCache.getInstance(getContext());
+
+        // Labels and icons are the slow part; load them in parallel chunks, kept in scan order
+        List<List<AppModel>> chunks = ScanPool.forEachChunk(snapshot.getApps(), ScanPool.defaultParallelism(), chunk -> {
+            List<AppModel> models = new ArrayList<>(chunk.size());
+            for (ScanSnapshot.AppEntry app : chunk) {
+                try {
+                    PackageInfo packageInfo = app.getPackageInfo();
+                    String appName = labelCache.getLabel(packageInfo);
+                    Drawable appIcon = packageInfo.applicationInfo.loadIcon(pm);
+                    models.add(new AppModel(appName, app.getPackageName(), appIcon, riskLabel(app.getRiskLevel())));
+                } catch (Exception e) {
+                    Log.e(TAG, "Failed to process package: " + app.getPackageName(), e);
                 }
-
-                allAppsList.add(new AppModel(appName, packageName, appIcon, risk));
-
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to process package: " + (packageInfo != null ? packageInfo.packageName : "NULL"), e);
             }
-        }
+            return models;
+        });
+        for (List<AppModel> chunk : chunks) allAppsList.addAll(chunk);
+        totalAppCount = snapshot.getTotalAppCount(); // already persisted by the coordinator
         Log.d(TAG, "Scan complete. Found " + totalAppCount + " user apps.");
     }
 
+    // AppModel risk text: only HIGH and MEDIUM are called out, everything else is "Low"
+    private static String riskLabel(PermissionAnalyzer.RiskLevel level) {
+        switch (level) {
+            case HIGH:   return "High";
+            case MEDIUM: return "Medium";
+            default:     return "Low";
+        }
+    }
+
     private void processGridCategories() {
         categoryList.clear();
 
@@ -289,10 +270,21 @@ public class PermissionFragment extends Fragment {
         categoryList.add(new PermissionCategory("Call Logs", "android.permission.READ_CALL_LOG", R.drawable.ic_call));
         categoryList.add(new PermissionCategory("Files", "android.permission.READ_EXTERNAL_STORAGE", R.drawable.ic_folder));
 
+        // One GROUP BY over the app_permission join for all categories
+        List<String> permissions = new ArrayList<>();
+        for (PermissionCategory category : categoryList) permissions.add(category.getPermissionConstant());
+        Map<String, Integer> counts = new HashMap<>();
+        for (PermissionAppCount row : permissionsDao.countAppsWithPermissions(permissions)) {
+            counts.put(row.permission, row.appCount);
+        }
+
+        // Risk per category: one id lookup per load, so grid clicks need no table lookup
+        CompiledRiskModel model = CompiledRiskModel.getDefault();
         for (PermissionCategory category : categoryList) {
-            List<PackageInfo> apps = permissionGroupMap.get(category.getPermissionConstant());
-            category.setAppCount(apps != null ? apps.size() : 0);
+            Integer count = counts.get(category.getPermissionConstant());
+            category.setAppCount(count != null ? count : 0);
             category.setTotalAppCount(totalAppCount); // This passes the REAL total
+            category.setRiskLevel(model.riskOf(model.idOf(category.getPermissionConstant())));
         }
     }
 
@@ -415,6 +407,10 @@ public class PermissionFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (pendingScan != null) {
+            pendingScan.cancel();
+            pendingScan = null;
+        }
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
             Log.d(TAG, "ExecutorService shut down.");
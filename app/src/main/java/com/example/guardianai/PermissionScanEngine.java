@@ -0,0 +1,164 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans the user-installed apps in a single pass and returns an immutable ScanSnapshot.
+ *
+ * Runtime grants and revokes raise no package broadcast, so each full scan starts with
+ * PackageIndex.refresh(): one getInstalledPackages(GET_PERMISSIONS) call for all packages,
+ * which also brings the index's grant flags up to date. Grant state then comes from
+ * requestedPermissionsFlags, with no further PackageManager calls per package.
+ * Risk level and per-permission membership are computed in the same loop; risk is evaluated
+ * on a CompiledRiskModel bitset of each app's granted permissions.
+ *
+ * The package list is split into contiguous chunks that are scanned on ScanPool and merged
+ * back in list order, so the snapshot is identical for every parallelism level.
+ *
+ * scan() reads the package list from PackageManager; call it off the main thread.
+ * A scan given a CancellationSignal checks it between packages and throws OperationCanceledException.
+ */
+public class PermissionScanEngine {
+
+    private static final String TAG = "PermissionScanEngine";
+
+    private final Context appContext;
+    private volatile int parallelism;
+
+    /** Result of one chunk; merged in chunk order. */
+    private static class ChunkResult {
+        final List<ScanSnapshot.AppEntry> apps = new ArrayList<>();
+        final Map<String, List<String>> appsByPermission = new HashMap<>();
+    }
+
+    public PermissionScanEngine(Context context) {
+        this(context, ScanPool.defaultParallelism());
+    }
+
+    public PermissionScanEngine(Context context, int parallelism) {
+        this.appContext = context.getApplicationContext();
+        setParallelism(parallelism);
+    }
+
+    /** Number of chunks scanned concurrently; 1 scans on the calling thread only. */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ScanSnapshot scan() {
+        return scan(null);
+    }
+
+    public ScanSnapshot scan(CancellationSignal signal) {
+        long start = SystemClock.elapsedRealtime();
+        String ownPackage = appContext.getPackageName();
+        List<PackageInfo> userPackages = new ArrayList<>();
+        for (PackageInfo pkgInfo : PackageIndex.getInstance(appContext).refresh().getPackages()) {
+            if (pkgInfo == null || pkgInfo.applicationInfo == null) continue;
+            if ((pkgInfo.applicationInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) continue;
+            if (pkgInfo.packageName.equals(ownPackage)) continue;
+            userPackages.add(pkgInfo);
+        }
+        RiskRuleLoader.ensureLoaded(appContext);
+        final CompiledRiskModel model = CompiledRiskModel.getDefault(); // held for the whole pass
+        int requestedParallelism = parallelism;
+
+        List<ChunkResult> chunks = ScanPool.forEachChunk(userPackages, requestedParallelism,
+                chunk -> scanChunk(chunk, model, signal));
+
+        // --- Merge in chunk order (same result as one sequential pass) ---
+        List<ScanSnapshot.AppEntry> apps = new ArrayList<>(userPackages.size());
+        EnumMap<PermissionAnalyzer.RiskLevel, List<String>> appsByRisk = new EnumMap<>(PermissionAnalyzer.RiskLevel.class);
+        for (PermissionAnalyzer.RiskLevel level : PermissionAnalyzer.RiskLevel.values()) {
+            appsByRisk.put(level, new ArrayList<>());
+        }
+        Map<String, List<String>> appsByPermission = new HashMap<>();
+        for (ChunkResult chunk : chunks) {
+            for (ScanSnapshot.AppEntry entry : chunk.apps) {
+                apps.add(entry);
+                appsByRisk.get(entry.getRiskLevel()).add(entry.getPackageName());
+            }
+            for (Map.Entry<String, List<String>> holders : chunk.appsByPermission.entrySet()) {
+                List<String> merged = appsByPermission.get(holders.getKey());
+                if (merged == null) appsByPermission.put(holders.getKey(), holders.getValue());
+                else merged.addAll(holders.getValue());
+            }
+        }
+
+        Log.d(TAG, "Scanned " + apps.size() + " user apps in " + (SystemClock.elapsedRealtime() - start)
+                + " ms (" + chunks.size() + " chunks, parallelism " + requestedParallelism + ").");
+        return new ScanSnapshot(apps, appsByRisk, appsByPermission, System.currentTimeMillis());
+    }
+
+    /**
+     * Scans a single package, e.g. after an install or update.
+     * @return null for system apps and this app, which full scans skip as well
+     */
+    public ScanSnapshot.AppEntry scanOne(PackageInfo pkgInfo) {
+        if (pkgInfo == null || pkgInfo.applicationInfo == null) return null;
+        if ((pkgInfo.applicationInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) return null;
+        if (pkgInfo.packageName.equals(appContext.getPackageName())) return null;
+        RiskRuleLoader.ensureLoaded(appContext);
+        return scanPackage(pkgInfo, CompiledRiskModel.getDefault(), new HashMap<>());
+    }
+
+    private ChunkResult scanChunk(List<PackageInfo> packages, CompiledRiskModel model, CancellationSignal signal) {
+        ChunkResult result = new ChunkResult();
+        for (PackageInfo pkgInfo : packages) {
+            if (signal != null) signal.throwIfCanceled();
+            try {
+                result.apps.add(scanPackage(pkgInfo, model, result.appsByPermission));
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to scan package: " + pkgInfo.packageName, e);
+            }
+        }
+        return result;
+    }
+
+    private ScanSnapshot.AppEntry scanPackage(PackageInfo pkgInfo, CompiledRiskModel model,
+                                              Map<String, List<String>> appsByPermission) {
+        String[] requested = pkgInfo.requestedPermissions;
+        int[] flags = pkgInfo.requestedPermissionsFlags;
+        long[] grantedBits = model.newBitset();
+        if (requested == null || requested.length == 0) {
+            return new ScanSnapshot.AppEntry(pkgInfo, PermissionAnalyzer.RiskLevel.NO_RISK, new ArrayList<>(), "",
+                    grantedBits);
+        }
+
+        // Interned once per package version; unchanged apps skip the per-permission id lookups
+        int[] ids = model.requestedIds(pkgInfo.packageName, pkgInfo.lastUpdateTime, requested);
+        List<String> granted = new ArrayList<>();
+        for (int i = 0; i < requested.length; i++) {
+            if (!AppPermissions.isGranted(flags, i)) continue;
+
+            String permission = requested[i];
+            granted.add(permission);
+            List<String> holders = appsByPermission.get(permission);
+            if (holders == null) {
+                holders = new ArrayList<>();
+                appsByPermission.put(permission, holders);
+            }
+            holders.add(pkgInfo.packageName);
+            model.add(grantedBits, ids[i]);
+        }
+
+        // Word-wise ANDs against the compiled level and combination masks
+        PermissionAnalyzer.RiskLevel level = model.highestRisk(grantedBits);
+        return new ScanSnapshot.AppEntry(pkgInfo, level, granted, String.join(",", requested), grantedBits);
+    }
+}
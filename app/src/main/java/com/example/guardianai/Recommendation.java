@@ -1,10 +1,16 @@
 package com.example.guardianai;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
-@Entity(tableName = "recommendations")
+@Entity(tableName = "recommendations",
+        foreignKeys = {@ForeignKey(entity = AppIdentity.class, parentColumns = "id", childColumns = "associated_app_id")},
+        indices = {@Index(value = "associated_app_id")})
 public class Recommendation {
 
     @PrimaryKey(autoGenerate = true)
@@ -19,11 +25,25 @@ public class Recommendation {
     @NonNull
     public String type; // Category, e.g., "UNUSED_APP", "HIGH_RISK_SUMMARY", "MEDIUM_RISK_SUMMARY"
 
-    public String associatedPackageName; // Store package name if applicable (for unused apps)
+    @ColumnInfo(name = "associated_app_id")
+    public Integer associatedAppId; // apps.id if applicable (for unused apps), else null
+
+    @Ignore
+    public String associatedPackageName; // Resolved through AppDirectory; not stored on the row
 
     public long timestamp; // When the recommendation was generated
 
+    // Constructor used by Room
+    public Recommendation(@NonNull String title, @NonNull String description, @NonNull String type, Integer associatedAppId, long timestamp) {
+        this.title = title;
+        this.description = description;
+        this.type = type;
+        this.associatedAppId = associatedAppId;
+        this.timestamp = timestamp;
+    }
+
     // Constructor
+    @Ignore
     public Recommendation(@NonNull String title, @NonNull String description, @NonNull String type, String associatedPackageName) {
         this.title = title;
         this.description = description;
@@ -9,13 +9,14 @@ import java.util.List;
 
 /**
  * Data Access Object for the Recommendation table.
+ * Rows carry associatedAppId only; AppDirectory.resolveRecommendations() fills in the package.
  */
 @Dao
 public interface RecommendationDao {
 
     /**
      * Inserts a single recommendation. If a recommendation with the same primary key
-     * already exists, it replaces the old one.
+     * already exists, it replaces the old one. Set associatedAppId (AppDirectory.idFor) first.
      * @param recommendation The recommendation object to insert.
      */
     @Insert(onConflict = OnConflictStrategy.REPLACE)
@@ -58,6 +59,6 @@ public interface RecommendationDao {
      * Useful when an app is uninstalled.
      * @param packageName The package name to match for deletion.
      */
-    @Query("DELETE FROM recommendations WHERE associatedPackageName = :packageName")
+    @Query("DELETE FROM recommendations WHERE associated_app_id = (SELECT id FROM apps WHERE package_name = :packageName)")
     void deleteRecommendationsByPackage(String packageName);
 }
\ No newline at end of file
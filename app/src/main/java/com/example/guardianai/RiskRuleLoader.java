@@ -0,0 +1,127 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads the permission risk rules and installs them as the CompiledRiskModel default.
+ *
+ * Source order: RULES_FILE in app storage (filesDir; an updated rule set), then the copy
+ * bundled in assets. A source is only installed once it has parsed and compiled, so a broken
+ * override falls back to the bundled rules and a broken bundle keeps the current model.
+ * Installing swaps the model reference atomically, so a scan in progress keeps the model it
+ * started with. If nothing can be loaded the built-in PermissionAnalyzer tables stay in use.
+ */
+public final class RiskRuleLoader {
+
+    private static final String TAG = "RiskRuleLoader";
+    public static final String RULES_FILE = "risk_rules.json";
+
+    private static volatile boolean loaded = false;
+
+    private RiskRuleLoader() {}
+
+    /** Loads the rules once per process. Reads files; call off the main thread. */
+    @WorkerThread
+    public static void ensureLoaded(Context context) {
+        if (loaded) return;
+        synchronized (RiskRuleLoader.class) {
+            if (loaded) return;
+            reload(context);
+            loaded = true;
+        }
+    }
+
+    /**
+     * Re-reads the rules (override first, then assets) and installs the first source that
+     * parses and compiles. Reads files; call off the main thread.
+     * @return false if no source was valid; the current model is kept in that case.
+     */
+    @WorkerThread
+    public static synchronized boolean reload(Context context) {
+        Context appContext = context.getApplicationContext();
+        File override = new File(appContext.getFilesDir(), RULES_FILE);
+        if (override.isFile()) {
+            try (InputStream in = new FileInputStream(override)) {
+                if (install(parse(new InputStreamReader(in, StandardCharsets.UTF_8)), "app storage")) return true;
+                Log.w(TAG, "Rule override has no usable rules; using bundled rules");
+            } catch (Exception e) {
+                Log.w(TAG, "Ignoring unreadable rule override", e);
+            }
+        }
+        try (InputStream in = appContext.getAssets().open(RULES_FILE)) {
+            return install(parse(new InputStreamReader(in, StandardCharsets.UTF_8)), "assets");
+        } catch (Exception e) {
+            Log.e(TAG, "Could not load bundled risk rules; keeping current table", e);
+            return false;
+        }
+    }
+
+    // --- Internal ---
+    static RiskRuleSet parse(Reader reader) {
+        return new Gson().fromJson(reader, RiskRuleSet.class);
+    }
+
+    private static boolean install(RiskRuleSet rules, String source) {
+        CompiledRiskModel model = compile(rules);
+        if (model == null) return false;
+        CompiledRiskModel.install(model);
+        Log.i(TAG, "Loaded risk rules v" + rules.version + " from " + source + ": "
+                + model.size() + " permissions, " + model.getCombinations().size() + " combinations.");
+        return true;
+    }
+
+    /** Compiles a rule set; invalid entries are skipped. Returns null if nothing usable remains. */
+    static CompiledRiskModel compile(RiskRuleSet rules) {
+        if (rules == null || rules.permissions == null || rules.permissions.isEmpty()) {
+            Log.w(TAG, "Rule set has no permission rules.");
+            return null;
+        }
+        Map<String, PermissionAnalyzer.RiskLevel> levels = new LinkedHashMap<>();
+        for (RiskRuleSet.PermissionRule rule : rules.permissions) {
+            PermissionAnalyzer.RiskLevel level = parseLevel(rule != null ? rule.level : null);
+            if (rule == null || rule.name == null || rule.name.isEmpty() || level == null) {
+                Log.w(TAG, "Skipping invalid permission rule: " + (rule != null ? rule.name : null));
+                continue;
+            }
+            levels.put(rule.name, level);
+        }
+        if (levels.isEmpty()) return null;
+
+        Map<String, String[]> combinations = new LinkedHashMap<>();
+        Map<String, PermissionAnalyzer.RiskLevel> combinationLevels = new LinkedHashMap<>();
+        if (rules.combinations != null) {
+            for (RiskRuleSet.CombinationRule combo : rules.combinations) {
+                if (combo == null || combo.name == null || combo.permissions == null || combo.permissions.isEmpty()) {
+                    continue;
+                }
+                combinations.put(combo.name, combo.permissions.toArray(new String[0]));
+                PermissionAnalyzer.RiskLevel level = parseLevel(combo.level);
+                if (level != null) combinationLevels.put(combo.name, level);
+            }
+        }
+        return new CompiledRiskModel(levels, combinations, combinationLevels);
+    }
+
+    private static PermissionAnalyzer.RiskLevel parseLevel(String level) {
+        if (level == null) return null;
+        try {
+            return PermissionAnalyzer.RiskLevel.valueOf(level.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
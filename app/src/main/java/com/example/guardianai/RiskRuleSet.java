@@ -0,0 +1,25 @@
+package com.example.guardianai;
+
+import java.util.List;
+
+/**
+ * Gson model of the risk rule file (risk_rules.json in app storage or assets).
+ * See RiskRuleLoader for how it is validated and compiled.
+ */
+public class RiskRuleSet {
+
+    public int version;
+    public List<PermissionRule> permissions;
+    public List<CombinationRule> combinations;
+
+    public static class PermissionRule {
+        public String name;   // e.g. "android.permission.CAMERA"
+        public String level;  // HIGH, MEDIUM, LOW or NO_RISK
+    }
+
+    public static class CombinationRule {
+        public String name;              // user-facing description
+        public String level;             // overall risk of holding all of them; HIGH if absent
+        public List<String> permissions; // all must be granted
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.guardianai;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Incrementally maintained privacy score.
+ *
+ * Holds each user app's risk level and the per-level counters derived from it. A full scan
+ * seeds the model with reset(); after that, single-package changes from AppUpdateReceiver are
+ * applied with update()/remove() in O(1) and the new score is published to listeners without
+ * rescanning. Until the first reset() the deltas are ignored (there is no baseline yet).
+ *
+ * A published Score only carries the counters, so a delta never copies the package sets;
+ * listeners that need the packages per level copy them with getCategorizedApps().
+ *
+ * Changes are applied under the lock but published after it is released. Each Score gets a
+ * sequence number under the lock, and publish() drops any Score older than the last one
+ * delivered, so listeners never see the score go back to an earlier state.
+ */
+public class RiskScoreModel {
+
+    private static final String TAG = "RiskScoreModel";
+    private static final PermissionAnalyzer.RiskLevel[] LEVELS = PermissionAnalyzer.RiskLevel.values();
+
+    /** Immutable view of the counters at one point in time. */
+    public static final class Score {
+        public final int score;
+        public final int highRiskCount;
+        public final int mediumRiskCount;
+        public final int lowRiskCount;
+        public final int noRiskCount;
+        public final int totalApps;
+        public final long sequence; // order of the change that produced it
+
+        Score(int[] counts, long sequence) {
+            this.sequence = sequence;
+            this.highRiskCount = counts[PermissionAnalyzer.RiskLevel.HIGH.ordinal()];
+            this.mediumRiskCount = counts[PermissionAnalyzer.RiskLevel.MEDIUM.ordinal()];
+            this.lowRiskCount = counts[PermissionAnalyzer.RiskLevel.LOW.ordinal()];
+            this.noRiskCount = counts[PermissionAnalyzer.RiskLevel.NO_RISK.ordinal()];
+            this.totalApps = highRiskCount + mediumRiskCount + lowRiskCount + noRiskCount;
+            this.score = scoreOf(highRiskCount, mediumRiskCount, totalApps);
+        }
+    }
+
+    public interface OnScoreChangedListener {
+        /** Called on the thread that applied the change. */
+        void onScoreChanged(Score score);
+    }
+
+    private static volatile RiskScoreModel INSTANCE;
+
+    public static RiskScoreModel getInstance() {
+        if (INSTANCE == null) {
+            synchronized (RiskScoreModel.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new RiskScoreModel();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // --- Guarded by this ---
+    private final Map<String, PermissionAnalyzer.RiskLevel> levelByPackage = new HashMap<>();
+    private final EnumMap<PermissionAnalyzer.RiskLevel, Set<String>> packagesByLevel = new EnumMap<>(PermissionAnalyzer.RiskLevel.class);
+    private final int[] counts = new int[LEVELS.length];
+    private boolean seeded = false;
+    private long sequence = 0; // bumped by every applied change
+
+    private final List<OnScoreChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object publishLock = new Object();
+    private long lastPublished = -1; // guarded by publishLock
+
+    // Package-private for tests; the app uses getInstance()
+    RiskScoreModel() {
+        for (PermissionAnalyzer.RiskLevel level : LEVELS) packagesByLevel.put(level, new HashSet<>());
+    }
+
+    /** Score formula: HIGH apps cost up to 50 points, MEDIUM apps up to 25, relative to all apps. */
+    public static int scoreOf(int high, int medium, int totalApps) {
+        int score = 100;
+        if (totalApps > 0) {
+            double highPenalty = (double) high / totalApps * 50;
+            double mediumPenalty = (double) medium / totalApps * 25;
+            score = (int) (100 - highPenalty - mediumPenalty);
+            if (score < 0) score = 0;
+        }
+        return score;
+    }
+
+    public void addListener(OnScoreChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnScoreChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    /** Replaces the whole state with a full scan. */
+    public void reset(ScanSnapshot snapshot) {
+        Score score;
+        synchronized (this) {
+            levelByPackage.clear();
+            for (Set<String> packages : packagesByLevel.values()) packages.clear();
+            Arrays.fill(counts, 0);
+            for (ScanSnapshot.AppEntry app : snapshot.getApps()) {
+                putLocked(app.getPackageName(), app.getRiskLevel());
+            }
+            seeded = true;
+            sequence++;
+            score = snapshotLocked();
+        }
+        publish(score);
+    }
+
+    /** Applies an installed or updated package. O(1). */
+    public void update(String packageName, PermissionAnalyzer.RiskLevel level) {
+        Score score;
+        synchronized (this) {
+            if (!seeded) return;
+            PermissionAnalyzer.RiskLevel previous = levelByPackage.get(packageName);
+            if (previous == level) return;
+            if (previous != null) removeLocked(packageName, previous);
+            putLocked(packageName, level);
+            sequence++;
+            score = snapshotLocked();
+        }
+        Log.d(TAG, "Delta " + packageName + ": " + level + " -> score " + score.score);
+        publish(score);
+    }
+
+    /** Applies an uninstalled package. O(1). */
+    public void remove(String packageName) {
+        Score score;
+        synchronized (this) {
+            if (!seeded) return;
+            PermissionAnalyzer.RiskLevel previous = levelByPackage.get(packageName);
+            if (previous == null) return;
+            removeLocked(packageName, previous);
+            sequence++;
+            score = snapshotLocked();
+        }
+        Log.d(TAG, "Removed " + packageName + " -> score " + score.score);
+        publish(score);
+    }
+
+    /** @return the current score, or null before the first full scan. */
+    public synchronized Score getScore() {
+        return seeded ? snapshotLocked() : null;
+    }
+
+    /**
+     * Copies the package names per level (every level present, in no particular order).
+     * O(apps); call off the main thread. @return null before the first full scan.
+     */
+    public synchronized Map<PermissionAnalyzer.RiskLevel, List<String>> getCategorizedApps() {
+        if (!seeded) return null;
+        Map<PermissionAnalyzer.RiskLevel, List<String>> categorized = new EnumMap<>(PermissionAnalyzer.RiskLevel.class);
+        for (PermissionAnalyzer.RiskLevel level : LEVELS) {
+            categorized.put(level, new ArrayList<>(packagesByLevel.get(level)));
+        }
+        return categorized;
+    }
+
+    // --- Internal (guarded by this) ---
+    private void putLocked(String packageName, PermissionAnalyzer.RiskLevel level) {
+        levelByPackage.put(packageName, level);
+        packagesByLevel.get(level).add(packageName);
+        counts[level.ordinal()]++;
+    }
+
+    private void removeLocked(String packageName, PermissionAnalyzer.RiskLevel level) {
+        levelByPackage.remove(packageName);
+        packagesByLevel.get(level).remove(packageName);
+        counts[level.ordinal()]--;
+    }
+
+    private Score snapshotLocked() {
+        return new Score(counts.clone(), sequence);
+    }
+
+    // Serialized so two changes racing here cannot reach a listener out of order
+    private void publish(Score score) {
+        synchronized (publishLock) {
+            if (score.sequence <= lastPublished) return; // a newer change was already delivered
+            lastPublished = score.sequence;
+            for (OnScoreChangedListener listener : listeners) {
+                try {
+                    listener.onScoreChanged(score);
+                } catch (Exception e) {
+                    Log.w(TAG, "Score listener failed", e);
+                }
+            }
+        }
+    }
+}
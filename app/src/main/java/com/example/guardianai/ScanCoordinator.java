@@ -0,0 +1,222 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * App-scoped single-flight entry point for permission scans.
+ *
+ * Single flight: at most one scan runs. Requests that arrive while it runs join it and get
+ * the same snapshot. When every subscriber has cancelled, the scan is cancelled cooperatively.
+ *
+ * Freshness: a non-forced request within MIN_FRESHNESS_MS of the last completed scan is
+ * answered from that snapshot without scanning. Forced requests (pull-to-refresh) always scan.
+ *
+ * Generations: invalidate() drops the cached snapshot and bumps a generation. A scan that
+ * started under an older generation may have read the pre-change package index. Its result
+ * is neither saved nor cached, and its subscribers get a new scan instead.
+ *
+ * Each current result is saved to AppPermissionsStore once and re-seeds RiskScoreModel, so
+ * screens do not persist it themselves. Listeners run on the coordinator's background thread;
+ * hand heavy work to your own executor.
+ */
+public class ScanCoordinator {
+
+    private static final String TAG = "ScanCoordinator";
+    public static final long MIN_FRESHNESS_MS = 30_000L;
+
+    public interface Listener {
+        /** @param snapshot the scan result, or null if the scan failed */
+        void onScanResult(@Nullable ScanSnapshot snapshot);
+    }
+
+    /** Handle for one request; cancel() when the requester goes away. */
+    public final class Subscription {
+        private final Listener listener;
+        private final boolean fromCache;
+        private boolean done = false;
+
+        private Subscription(Listener listener, boolean fromCache) {
+            this.listener = listener;
+            this.fromCache = fromCache;
+        }
+
+        public void cancel() {
+            unsubscribe(this);
+        }
+
+        /** True if the request is answered from the last snapshot and no scan runs for it. */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        private synchronized boolean markDone() {
+            if (done) return false;
+            done = true;
+            return true;
+        }
+    }
+
+    private static volatile ScanCoordinator INSTANCE;
+
+    public static ScanCoordinator getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ScanCoordinator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ScanCoordinator(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final PermissionScanEngine engine;
+    private final AppPermissionsStore permissionsStore;
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+
+    // --- Guarded by this ---
+    private final List<Subscription> subscribers = new ArrayList<>();
+    private CancellationSignal inFlight; // null when no scan is running
+    private ScanSnapshot latest;
+    private long latestAtElapsed;
+    private long generation; // bumped by invalidate()
+
+    // --- Counters (guarded by this) ---
+    private int requestCount;
+    private int coalescedCount;
+    private int freshHitCount;
+    private int scanCount;
+    private int cancelledCount;
+
+    private ScanCoordinator(Context appContext) {
+        this.engine = new PermissionScanEngine(appContext);
+        this.permissionsStore = AppPermissionsStore.getInstance(appContext);
+    }
+
+    /**
+     * Requests a scan result.
+     * @param force skip the freshness check (still joins a scan that is already running)
+     */
+    public synchronized Subscription request(boolean force, Listener listener) {
+        requestCount++;
+        boolean fresh = !force && inFlight == null && latest != null
+                && SystemClock.elapsedRealtime() - latestAtElapsed < MIN_FRESHNESS_MS;
+        Subscription subscription = new Subscription(listener, fresh);
+        if (fresh) {
+            freshHitCount++;
+            final ScanSnapshot fresh = latest;
+            scanExecutor.execute(() -> deliver(subscription, fresh));
+            return subscription;
+        }
+        subscribers.add(subscription);
+        if (inFlight != null && !inFlight.isCanceled()) {
+            coalescedCount++;
+            Log.d(TAG, "Joined running scan (" + subscribers.size() + " subscribers).");
+            return subscription;
+        }
+        if (inFlight == null) startScanLocked();
+        // else: a cancelled scan is still winding down; finishScan() restarts for these subscribers
+        return subscription;
+    }
+
+    /**
+     * Drops the cached snapshot and marks any running scan as stale, so the next result comes
+     * from a scan that started afterwards. Call it once the change is visible in PackageIndex.
+     */
+    public synchronized void invalidate() {
+        latest = null;
+        generation++;
+    }
+
+    public synchronized String getStats() {
+        return "requests=" + requestCount + ", coalesced=" + coalescedCount + ", fresh=" + freshHitCount
+                + ", scans=" + scanCount + ", cancelled=" + cancelledCount;
+    }
+
+    // --- Internal ---
+    private void startScanLocked() {
+        final CancellationSignal signal = new CancellationSignal();
+        inFlight = signal;
+        scanCount++;
+        final long scanGeneration = generation;
+        scanExecutor.execute(() -> runScan(signal, scanGeneration));
+    }
+
+    private synchronized boolean isCurrent(long scanGeneration) {
+        return scanGeneration == generation;
+    }
+
+    private void runScan(CancellationSignal signal, long scanGeneration) {
+        ScanSnapshot snapshot = null;
+        try {
+            snapshot = engine.scan(signal);
+        } catch (OperationCanceledException e) {
+            Log.d(TAG, "Scan cancelled; no subscribers left.");
+        } catch (Exception e) {
+            Log.e(TAG, "Permission scan failed", e);
+        }
+        if (snapshot != null && isCurrent(scanGeneration)) {
+            try {
+                permissionsStore.saveAll(snapshot); // unchanged apps are skipped by fingerprint
+            } catch (Exception e) {
+                Log.e(TAG, "Error saving app permissions", e);
+            }
+            RiskScoreModel.getInstance().reset(snapshot); // re-seed the incremental score
+        }
+        finishScan(signal, snapshot, scanGeneration);
+    }
+
+    private void finishScan(CancellationSignal signal, ScanSnapshot snapshot, long scanGeneration) {
+        List<Subscription> targets;
+        synchronized (this) {
+            inFlight = null;
+            if (signal.isCanceled()) {
+                cancelledCount++;
+                if (!subscribers.isEmpty()) startScanLocked(); // someone asked again while it wound down
+                return;
+            }
+            if (scanGeneration != generation) {
+                Log.d(TAG, "Scan started before the last invalidate(); discarding it.");
+                if (!subscribers.isEmpty()) startScanLocked();
+                return;
+            }
+            if (snapshot != null) {
+                latest = snapshot;
+                latestAtElapsed = SystemClock.elapsedRealtime();
+            }
+            targets = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        for (Subscription subscription : targets) deliver(subscription, snapshot);
+        Log.d(TAG, "Scan delivered to " + targets.size() + " subscribers. " + getStats());
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        if (!subscription.markDone()) return;
+        subscribers.remove(subscription);
+        if (subscribers.isEmpty() && inFlight != null) inFlight.cancel();
+    }
+
+    private void deliver(Subscription subscription, ScanSnapshot snapshot) {
+        if (!subscription.markDone()) return; // cancelled by the requester
+        try {
+            subscription.listener.onScanResult(snapshot);
+        } catch (Exception e) {
+            Log.w(TAG, "Scan listener failed", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.guardianai;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded CPU pool for splitting package scans across cores.
+ *
+ * forEachChunk() cuts a list into contiguous chunks, processes them independently and returns
+ * the per-chunk results in list order, so callers can merge them into exactly what a
+ * sequential pass would produce. The calling thread works on the first chunk itself; the rest
+ * go to a shared pool of at most MAX_THREADS background-priority threads.
+ *
+ * Chunk tasks must not call forEachChunk() again (the pool is bounded and would starve).
+ */
+public final class ScanPool {
+
+    private static final String TAG = "ScanPool";
+    public static final int MAX_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    static final int MIN_CHUNK_SIZE = 16; // smaller lists are not worth the hand-off
+
+    public interface ChunkTask<T, R> {
+        R process(List<T> chunk);
+    }
+
+    private static volatile ExecutorService pool;
+
+    private ScanPool() {}
+
+    /** One worker per core, bounded by MAX_THREADS. */
+    public static int defaultParallelism() {
+        return MAX_THREADS;
+    }
+
+    /**
+     * Processes items in up to parallelism contiguous chunks.
+     * @return one result per chunk, in the order of the chunks in the list
+     */
+    public static <T, R> List<R> forEachChunk(List<T> items, int parallelism, ChunkTask<T, R> task) {
+        int n = items.size();
+        int chunks = Math.max(1, Math.min(Math.min(parallelism, MAX_THREADS), n / MIN_CHUNK_SIZE));
+        List<R> results = new ArrayList<>(chunks);
+        if (chunks == 1) {
+            results.add(task.process(items));
+            return results;
+        }
+
+        ExecutorService executor = getPool();
+        List<Future<R>> futures = new ArrayList<>(chunks - 1);
+        for (int c = 1; c < chunks; c++) {
+            final List<T> chunk = items.subList(c * n / chunks, (c + 1) * n / chunks);
+            futures.add(executor.submit(() -> task.process(chunk)));
+        }
+        boolean complete = false;
+        try {
+            // The caller's own chunk runs inside the try, so the others are cancelled if it throws
+            results.add(task.process(items.subList(0, n / chunks)));
+            for (Future<R> future : futures) results.add(future.get());
+            complete = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for scan chunks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Scan chunk failed", e.getCause());
+        } finally {
+            if (!complete) {
+                for (Future<R> future : futures) future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static ExecutorService getPool() {
+        ExecutorService executor = pool;
+        if (executor == null) {
+            synchronized (ScanPool.class) {
+                if (pool == null) {
+                    final AtomicInteger count = new AtomicInteger();
+                    pool = Executors.newFixedThreadPool(MAX_THREADS, runnable -> {
+                        Thread thread = new Thread(() -> {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }, "GuardianScan-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    Log.d(TAG, "Scan pool created with " + MAX_THREADS + " threads.");
+                }
+                executor = pool;
+            }
+        }
+        return executor;
+    }
+}
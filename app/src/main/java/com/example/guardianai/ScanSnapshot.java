@@ -0,0 +1,93 @@
+package com.example.guardianai;
+
+import android.content.pm.PackageInfo;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of one PermissionScanEngine pass over the user-installed apps.
+ *
+ * Holds each app's overall risk and granted permissions, the apps grouped by risk level and
+ * the apps holding each granted permission. Safe to share between threads and fragments.
+ */
+public final class ScanSnapshot {
+
+    /** One scanned app. */
+    public static final class AppEntry {
+        private final PackageInfo packageInfo;
+        private final PermissionAnalyzer.RiskLevel riskLevel;
+        private final List<String> grantedPermissions;
+        private final String requestedPermissions; // comma-joined
+        private final long[] grantedBits;          // CompiledRiskModel bitset; not exposed for writing
+
+        AppEntry(PackageInfo packageInfo, PermissionAnalyzer.RiskLevel riskLevel,
+                 List<String> grantedPermissions, String requestedPermissions, long[] grantedBits) {
+            this.packageInfo = packageInfo;
+            this.riskLevel = riskLevel;
+            this.grantedPermissions = Collections.unmodifiableList(grantedPermissions);
+            this.requestedPermissions = requestedPermissions;
+            this.grantedBits = grantedBits;
+        }
+
+        public String getPackageName() { return packageInfo.packageName; }
+        public PackageInfo getPackageInfo() { return packageInfo; }
+        /** Highest risk among the granted permissions and the combinations they complete (NO_RISK if none). */
+        public PermissionAnalyzer.RiskLevel getRiskLevel() { return riskLevel; }
+        public List<String> getGrantedPermissions() { return grantedPermissions; }
+        public String getRequestedPermissions() { return requestedPermissions; }
+
+        /** True if the app holds any permission of the mask (see CompiledRiskModel.maskOf). */
+        public boolean holdsAny(long[] mask) {
+            return CompiledRiskModel.intersects(grantedBits, mask);
+        }
+    }
+
+    private final List<AppEntry> apps;
+    private final Map<PermissionAnalyzer.RiskLevel, List<String>> appsByRisk;
+    private final Map<String, List<String>> appsByPermission;
+    private final long scanTime;
+
+    ScanSnapshot(List<AppEntry> apps, EnumMap<PermissionAnalyzer.RiskLevel, List<String>> appsByRisk,
+                 Map<String, List<String>> appsByPermission, long scanTime) {
+        this.apps = Collections.unmodifiableList(apps);
+        for (Map.Entry<PermissionAnalyzer.RiskLevel, List<String>> entry : appsByRisk.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.appsByRisk = Collections.unmodifiableMap(appsByRisk);
+        for (Map.Entry<String, List<String>> entry : appsByPermission.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.appsByPermission = Collections.unmodifiableMap(appsByPermission);
+        this.scanTime = scanTime;
+    }
+
+    public List<AppEntry> getApps() {
+        return apps;
+    }
+
+    public int getTotalAppCount() {
+        return apps.size();
+    }
+
+    /** Package names per overall risk level; every level is present. */
+    public Map<PermissionAnalyzer.RiskLevel, List<String>> getAppsByRisk() {
+        return appsByRisk;
+    }
+
+    public int getRiskCount(PermissionAnalyzer.RiskLevel level) {
+        return appsByRisk.get(level).size();
+    }
+
+    /** Package names of the apps that hold the given permission (granted). */
+    public List<String> getAppsWithPermission(String permission) {
+        List<String> apps = appsByPermission.get(permission);
+        return apps != null ? apps : Collections.emptyList();
+    }
+
+    public long getScanTime() {
+        return scanTime;
+    }
+}
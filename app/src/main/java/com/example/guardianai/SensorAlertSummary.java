@@ -0,0 +1,10 @@
+package com.example.guardianai;
+
+/** Result row of the dashboard alert query: background alerts per (package, sensor). */
+public class SensorAlertSummary {
+    public String packageName;
+    public String appName;
+    public String sensorType;
+    public int alertCount;
+    public long lastTimestamp;
+}
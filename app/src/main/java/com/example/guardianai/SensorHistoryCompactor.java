@@ -0,0 +1,160 @@
+package com.example.guardianai;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tiered retention for sensor history.
+ *
+ * - Raw sensor_logs older than rawRetentionDays (or beyond maxRawRows) are rolled into
+ *   hourly buckets per (package, sensor, alert flag) and deleted.
+ * - Hourly buckets older than hourlyRetentionDays (or beyond maxHourlyRows) are rolled into
+ *   daily buckets the same way.
+ * - Daily buckets older than dailyRetentionDays, or beyond maxDailyRows, are dropped; so are
+ *   sessions that ended before the daily cutoff.
+ *
+ * Each step moves at most CHUNK_SIZE source rows per transaction, so the writer never holds the
+ * database for long, and the pass stops between chunks when asked to.
+ *
+ * The hourly and daily tables only bound what is kept; nothing in the UI reads them yet.
+ */
+public class SensorHistoryCompactor {
+
+    private static final String TAG = "SensorHistoryCompactor";
+    static final int CHUNK_SIZE = 2_000;
+
+    /** Retention windows and row budgets. */
+    public static class Budget {
+        public final int rawRetentionDays;
+        public final int hourlyRetentionDays;
+        public final int dailyRetentionDays;
+        public final int maxRawRows;
+        public final int maxHourlyRows;
+        public final int maxDailyRows;
+
+        public Budget(int rawRetentionDays, int hourlyRetentionDays, int dailyRetentionDays,
+                      int maxRawRows, int maxHourlyRows, int maxDailyRows) {
+            this.rawRetentionDays = Math.max(1, rawRetentionDays);
+            this.hourlyRetentionDays = Math.max(this.rawRetentionDays, hourlyRetentionDays);
+            this.dailyRetentionDays = Math.max(this.hourlyRetentionDays, dailyRetentionDays);
+            this.maxRawRows = Math.max(CHUNK_SIZE, maxRawRows);
+            this.maxHourlyRows = Math.max(CHUNK_SIZE, maxHourlyRows);
+            this.maxDailyRows = Math.max(CHUNK_SIZE, maxDailyRows);
+        }
+    }
+
+    private final AppDatabase db;
+    private final SensorHistoryDao dao;
+    private final SensorSessionDao sessionDao;
+    private final Budget budget;
+
+    public SensorHistoryCompactor(AppDatabase db, Budget budget) {
+        this.db = db;
+        this.dao = db.sensorHistoryDao();
+        this.sessionDao = db.sensorSessionDao();
+        this.budget = budget;
+    }
+
+    /**
+     * Runs one compaction pass.
+     * @param stopped polled between chunks; a stopped pass leaves the tables consistent
+     * @return false if the pass was stopped before finishing
+     */
+    public boolean compact(long now, BooleanSupplier stopped) {
+        long start = SystemClock.elapsedRealtime();
+
+        // --- Raw -> hourly ---
+        long rawCutoff = now - TimeUnit.DAYS.toMillis(budget.rawRetentionDays);
+        int rawCount = dao.getRawCount();
+        if (rawCount > budget.maxRawRows) {
+            Long overBudget = dao.getRawTimestampAt(rawCount - budget.maxRawRows);
+            if (overBudget != null) rawCutoff = Math.max(rawCutoff, overBudget);
+        }
+        int rawMoved = rollUpRaw(rawCutoff, stopped);
+        if (stopped.getAsBoolean()) return false;
+
+        // --- Hourly -> daily ---
+        long hourlyCutoff = now - TimeUnit.DAYS.toMillis(budget.hourlyRetentionDays);
+        int hourlyCount = dao.getHourlyCount();
+        if (hourlyCount > budget.maxHourlyRows) {
+            Long overBudget = dao.getHourStartAt(hourlyCount - budget.maxHourlyRows);
+            if (overBudget != null) hourlyCutoff = Math.max(hourlyCutoff, overBudget);
+        }
+        int hourlyMoved = rollUpHourly(hourlyCutoff, stopped);
+        if (stopped.getAsBoolean()) return false;
+
+        // --- Daily and session retention ---
+        long dailyCutoff = now - TimeUnit.DAYS.toMillis(budget.dailyRetentionDays);
+        int dailyDropped = dao.deleteDailyBefore(dailyCutoff);
+        int dailyExcess = dao.getDailyCount() - budget.maxDailyRows;
+        if (dailyExcess > 0) dailyDropped += dao.deleteOldestDaily(dailyExcess);
+        int sessionsDropped = sessionDao.deleteOldSessions(dailyCutoff);
+
+        Log.i(TAG, "Compaction: " + rawMoved + " raw -> hourly, " + hourlyMoved + " hourly -> daily, "
+                + dailyDropped + " daily and " + sessionsDropped + " sessions dropped in "
+                + (SystemClock.elapsedRealtime() - start) + " ms.");
+        return true;
+    }
+
+    // --- Internal ---
+    private int rollUpRaw(long cutoff, BooleanSupplier stopped) {
+        int moved = 0;
+        while (!stopped.getAsBoolean()) {
+            Long oldest = dao.getOldestRawTimestamp();
+            if (oldest == null || oldest >= cutoff) break;
+            final long upper = chunkUpper(oldest, dao.getRawTimestampAt(CHUNK_SIZE), cutoff);
+            moved += db.runInTransaction(() -> {
+                for (SensorRollup bucket : dao.rollUpRawBefore(upper)) mergeHourly(bucket);
+                return dao.deleteRawBefore(upper);
+            });
+        }
+        return moved;
+    }
+
+    private int rollUpHourly(long cutoff, BooleanSupplier stopped) {
+        int moved = 0;
+        while (!stopped.getAsBoolean()) {
+            Long oldest = dao.getOldestHourStart();
+            if (oldest == null || oldest >= cutoff) break;
+            final long upper = chunkUpper(oldest, dao.getHourStartAt(CHUNK_SIZE), cutoff);
+            moved += db.runInTransaction(() -> {
+                for (SensorRollup bucket : dao.rollUpHourlyBefore(upper)) mergeDaily(bucket);
+                return dao.deleteHourlyBefore(upper);
+            });
+        }
+        return moved;
+    }
+
+    /**
+     * Exclusive upper bound of the next chunk: the key of the (CHUNK_SIZE + 1)-th oldest row,
+     * capped at the cutoff. Always past the oldest key, so every chunk makes progress.
+     */
+    private static long chunkUpper(long oldest, Long chunkBoundary, long cutoff) {
+        long upper = chunkBoundary != null ? Math.min(cutoff, chunkBoundary) : cutoff;
+        return upper > oldest ? upper : oldest + 1;
+    }
+
+    // A bucket can be split across chunks and passes. If it already exists, the new counts are
+    // added to it instead of replacing it.
+    private void mergeHourly(SensorRollup b) {
+        long id = dao.insertHourly(new SensorLogHourly(b.bucketStart, b.packageName, b.sensorType, b.isAlert,
+                b.appName, b.eventCount, b.firstTimestamp, b.lastTimestamp));
+        if (id == -1) {
+            dao.addToHourly(b.bucketStart, b.packageName, b.sensorType, b.isAlert, b.appName,
+                    b.eventCount, b.firstTimestamp, b.lastTimestamp);
+        }
+    }
+
+    private void mergeDaily(SensorRollup b) {
+        long id = dao.insertDaily(new SensorLogDaily(b.bucketStart, b.packageName, b.sensorType, b.isAlert,
+                b.appName, b.eventCount, b.firstTimestamp, b.lastTimestamp));
+        if (id == -1) {
+            dao.addToDaily(b.bucketStart, b.packageName, b.sensorType, b.isAlert, b.appName,
+                    b.eventCount, b.firstTimestamp, b.lastTimestamp);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.guardianai;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Roll-up and retention queries used by SensorHistoryCompactor.
+ * Raw sensor_logs roll into sensor_log_hourly, which rolls into sensor_log_daily.
+ */
+@Dao
+public interface SensorHistoryDao {
+
+    // --- Raw events ---
+    @Query("SELECT COUNT(*) FROM sensor_logs")
+    int getRawCount();
+
+    @Query("SELECT MIN(timestamp) FROM sensor_logs")
+    Long getOldestRawTimestamp();
+
+    /** Timestamp of the (offset + 1)-th oldest raw row, or null if there are fewer rows. */
+    @Query("SELECT timestamp FROM sensor_logs ORDER BY timestamp LIMIT 1 OFFSET :offset")
+    Long getRawTimestampAt(int offset);
+
+    // Grouped by the integer app id; the names are joined in from apps once per group. LEFT JOIN so
+    // a row whose apps entry is missing is still rolled up (under "app:<id>") before deleteRawBefore
+    @Query("SELECT g.bucketStart, COALESCE(a.package_name, 'app:' || g.app_id) AS packageName, g.sensorType, g.isAlert, "
+            + "a.app_name AS appName, "
+            + "g.eventCount, g.firstTimestamp, g.lastTimestamp FROM (SELECT (timestamp / 3600000) * 3600000 AS bucketStart, "
+            + "app_id, COALESCE(sensor_type, '') AS sensorType, is_alert AS isAlert, "
+            + "COUNT(*) AS eventCount, MIN(timestamp) AS firstTimestamp, MAX(timestamp) AS lastTimestamp "
+            + "FROM sensor_logs WHERE timestamp < :upper GROUP BY bucketStart, app_id, sensorType, isAlert) g "
+            + "LEFT JOIN apps a ON a.id = g.app_id")
+    List<SensorRollup> rollUpRawBefore(long upper);
+
+    @Query("DELETE FROM sensor_logs WHERE timestamp < :upper")
+    int deleteRawBefore(long upper);
+
+    // --- Hourly ---
+    @Query("SELECT COUNT(*) FROM sensor_log_hourly")
+    int getHourlyCount();
+
+    @Query("SELECT MIN(hour_start) FROM sensor_log_hourly")
+    Long getOldestHourStart();
+
+    @Query("SELECT hour_start FROM sensor_log_hourly ORDER BY hour_start LIMIT 1 OFFSET :offset")
+    Long getHourStartAt(int offset);
+
+    /** @return -1 if the bucket already exists (then use addToHourly). */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertHourly(SensorLogHourly row);
+
+    @Query("UPDATE sensor_log_hourly SET event_count = event_count + :count, "
+            + "first_timestamp = MIN(first_timestamp, :first), last_timestamp = MAX(last_timestamp, :last), "
+            + "app_name = COALESCE(:appName, app_name) "
+            + "WHERE hour_start = :bucket AND package_name = :packageName AND sensor_type = :sensorType AND is_alert = :isAlert")
+    int addToHourly(long bucket, String packageName, String sensorType, boolean isAlert, String appName,
+                    int count, long first, long last);
+
+    @Query("SELECT (hour_start / 86400000) * 86400000 AS bucketStart, package_name AS packageName, "
+            + "sensor_type AS sensorType, is_alert AS isAlert, MAX(app_name) AS appName, "
+            + "SUM(event_count) AS eventCount, MIN(first_timestamp) AS firstTimestamp, MAX(last_timestamp) AS lastTimestamp "
+            + "FROM sensor_log_hourly WHERE hour_start < :upper GROUP BY bucketStart, packageName, sensorType, isAlert")
+    List<SensorRollup> rollUpHourlyBefore(long upper);
+
+    @Query("DELETE FROM sensor_log_hourly WHERE hour_start < :upper")
+    int deleteHourlyBefore(long upper);
+
+    // --- Daily ---
+    @Query("SELECT COUNT(*) FROM sensor_log_daily")
+    int getDailyCount();
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertDaily(SensorLogDaily row);
+
+    @Query("UPDATE sensor_log_daily SET event_count = event_count + :count, "
+            + "first_timestamp = MIN(first_timestamp, :first), last_timestamp = MAX(last_timestamp, :last), "
+            + "app_name = COALESCE(:appName, app_name) "
+            + "WHERE day_start = :bucket AND package_name = :packageName AND sensor_type = :sensorType AND is_alert = :isAlert")
+    int addToDaily(long bucket, String packageName, String sensorType, boolean isAlert, String appName,
+                   int count, long first, long last);
+
+    @Query("DELETE FROM sensor_log_daily WHERE day_start < :cutoff")
+    int deleteDailyBefore(long cutoff);
+
+    @Query("DELETE FROM sensor_log_daily WHERE rowid IN "
+            + "(SELECT rowid FROM sensor_log_daily ORDER BY day_start LIMIT :count)")
+    int deleteOldestDaily(int count);
+}
@@ -102,11 +102,6 @@ public class SensorLogAdapter extends RecyclerView.Adapter<SensorLogAdapter.LogV
         return logList.size();
     }
 
-    public void updateLogs(List<SensorLogEntry> newLogs) {
-        this.logList = newLogs;
-        notifyDataSetChanged();
-    }
-
     public static class LogViewHolder extends RecyclerView.ViewHolder {
         ImageView sensorIcon;
         TextView appName;
@@ -0,0 +1,40 @@
+package com.example.guardianai;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+/**
+ * Periodic sensor history compaction (see SensorHistoryCompactor).
+ * Runs with the fixed retention windows and row budgets in BUDGET; there is no user setting.
+ */
+public class SensorLogCompactionWorker extends Worker {
+
+    private static final String TAG = "SensorLogCompaction";
+    public static final String UNIQUE_WORK_NAME = "SensorLogCompaction";
+
+    // Raw rows 7 days, hourly buckets 30 days, daily buckets a year; 100k / 50k / 50k rows at most
+    static final SensorHistoryCompactor.Budget BUDGET =
+            new SensorHistoryCompactor.Budget(7, 30, 365, 100_000, 50_000, 50_000);
+
+    public SensorLogCompactionWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            AppDatabase db = AppDatabase.getDatabase(getApplicationContext());
+            boolean finished = new SensorHistoryCompactor(db, BUDGET).compact(System.currentTimeMillis(), this::isStopped);
+            if (!finished) Log.d(TAG, "Compaction stopped early; the rest runs next time.");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Sensor log compaction failed", e);
+            return Result.retry();
+        }
+    }
+}
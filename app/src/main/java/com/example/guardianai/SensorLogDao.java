@@ -7,6 +7,9 @@ import androidx.room.Query;
 
 import java.util.List;
 
+/**
+ * Rows read as SensorLogEntry carry only app_id; fill in the names with AppDirectory.resolveLogs().
+ */
 @Dao
 public interface SensorLogDao {
 
@@ -14,9 +17,28 @@ public interface SensorLogDao {
     @Insert
     void insertLogEntry(SensorLogEntry logEntry);
 
-    /** Retrieves all log entries, ordered by timestamp descending (newest first). */
-    @Query("SELECT * FROM sensor_logs ORDER BY timestamp DESC")
-    LiveData<List<SensorLogEntry>> getAllLogs();
+    /** Inserts a batch of events in a single transaction (used by SensorLogWriter). */
+    @Insert
+    void insertLogEntries(List<SensorLogEntry> logEntries);
+
+    // --- Keyset paging (SensorLogPager): (timestamp, id) cursors, newest first ---
+    /** First page: the newest entries. */
+    @Query("SELECT * FROM sensor_logs ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<SensorLogEntry> getNewestPage(int limit);
+
+    /** Entries older than the cursor, newest first. */
+    @Query("SELECT * FROM sensor_logs WHERE timestamp <= :timestamp AND (timestamp < :timestamp OR id < :id) "
+            + "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    List<SensorLogEntry> getPageBefore(long timestamp, int id, int limit);
+
+    /** Entries newer than the cursor, OLDEST first (the caller reverses them). */
+    @Query("SELECT * FROM sensor_logs WHERE timestamp >= :timestamp AND (timestamp > :timestamp OR id > :id) "
+            + "ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    List<SensorLogEntry> getPageAfter(long timestamp, int id, int limit);
+
+    /** True if the row still exists (SensorLogPager's check for deletes under its window). */
+    @Query("SELECT EXISTS(SELECT 1 FROM sensor_logs WHERE id = :id)")
+    boolean exists(int id);
 
     /** Retrieves logs for a specific sensor type. */
     @Query("SELECT * FROM sensor_logs WHERE sensor_type = :sensorType ORDER BY timestamp DESC")
@@ -26,13 +48,19 @@ public interface SensorLogDao {
     @Query("SELECT * FROM sensor_logs ORDER BY timestamp DESC LIMIT :limit")
     LiveData<List<SensorLogEntry>> getRecentLogs(int limit);
 
+    /**
+     * Alerts since the cutoff, one row per (app, sensor), most recent first.
+     * Range scan on the timestamp index grouped by the integer app id; names are joined in
+     * from apps only for the grouped rows.
+     */
+    @Query("SELECT a.package_name AS packageName, a.app_name AS appName, g.sensorType, g.alertCount, g.lastTimestamp "
+            + "FROM (SELECT app_id, sensor_type AS sensorType, COUNT(*) AS alertCount, MAX(timestamp) AS lastTimestamp "
+            + "FROM sensor_logs WHERE timestamp > :cutoff AND is_alert = 1 "
+            + "GROUP BY app_id, sensor_type ORDER BY lastTimestamp DESC LIMIT :limit) g "
+            + "JOIN apps a ON a.id = g.app_id ORDER BY g.lastTimestamp DESC")
+    List<SensorAlertSummary> getAlertSummariesSince(long cutoff, int limit);
+
     /** Clears old logs (optional maintenance). */
     @Query("DELETE FROM sensor_logs WHERE timestamp < :timestampCutoff")
     int deleteOldLogs(long timestampCutoff);
-
-    // Inside your SensorLogDao interface:
-
-    /** Retrieves all logs *blocking* the current thread (safe for ExecutorService). */
-    @Query("SELECT * FROM sensor_logs ORDER BY timestamp DESC")
-    List<SensorLogEntry> getAllLogsBlocking();
 }
\ No newline at end of file
@@ -2,9 +2,18 @@ package com.example.guardianai;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "sensor_logs")
+// timestamp serves ORDER BY timestamp DESC and the retention delete; the composites serve
+// per-sensor and per-app lookups in timestamp order. The app is stored as an apps.id.
+@Entity(tableName = "sensor_logs",
+        foreignKeys = {@ForeignKey(entity = AppIdentity.class, parentColumns = "id", childColumns = "app_id")},
+        indices = {@Index(value = "timestamp"),
+                @Index(value = {"sensor_type", "timestamp"}),
+                @Index(value = {"app_id", "timestamp"})})
 public class SensorLogEntry {
 
     @PrimaryKey(autoGenerate = true)
@@ -13,11 +22,14 @@ public class SensorLogEntry {
     @ColumnInfo(name = "timestamp")
     public long timestamp; // When the event occurred (System.currentTimeMillis())
 
-    @ColumnInfo(name = "package_name")
-    public String packageName; // The app that accessed the sensor
+    @ColumnInfo(name = "app_id")
+    public int appId; // The app that accessed the sensor (apps.id); set by SensorLogWriter
 
-    @ColumnInfo(name = "app_name")
-    public String appName; // User-friendly name of the app
+    @Ignore
+    public String packageName; // Resolved through AppDirectory; not stored on the row
+
+    @Ignore
+    public String appName; // User-friendly name of the app (AppDirectory)
 
     @ColumnInfo(name = "sensor_type")
     public String sensorType; // E.g., "CAMERA", "MICROPHONE", "LOCATION", "CLIPBOARD"
@@ -25,7 +37,15 @@ public class SensorLogEntry {
     @ColumnInfo(name = "is_alert")
     public boolean isAlert; // True if this event triggered a user alert (e.g., background mic use)
 
-    // --- Constructor ---
+    // --- Constructors ---
+    public SensorLogEntry(long timestamp, int appId, String sensorType, boolean isAlert) {
+        this.timestamp = timestamp;
+        this.appId = appId;
+        this.sensorType = sensorType;
+        this.isAlert = isAlert;
+    }
+
+    @Ignore
     public SensorLogEntry(long timestamp, String packageName, String appName, String sensorType, boolean isAlert) {
         this.timestamp = timestamp;
         this.packageName = packageName;
@@ -39,6 +59,7 @@ public class SensorLogEntry {
 
     public int getId() { return id; }
     public long getTimestamp() { return timestamp; }
+    public int getAppId() { return appId; }
     public String getPackageName() { return packageName; }
     public String getAppName() { return appName; }
     public String getSensorType() { return sensorType; }
@@ -1,6 +1,4 @@
 package com.example.guardianai;
-import android.os.Handler;
-import android.os.Looper;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -18,15 +16,14 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.guardianai.SensorLogDao; // Assuming AppDatabase is updated
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 public class SensorLogFragment extends Fragment {
 
     private RecyclerView logRecyclerView;
     private TextView emptyStateTextView;
     private SensorLogAdapter logAdapter;
-    private SensorLogDao sensorLogDao;
+    private SensorLogPager logPager;
+    private LinearLayoutManager layoutManager;
 
     @Nullable
     @Override
@@ -38,35 +35,67 @@ public class SensorLogFragment extends Fragment {
         view.findViewById(R.id.btn_clear_logs).setOnClickListener(v -> confirmClearLogs());
 
         // Initialize DAO
-        sensorLogDao = AppDatabase.getDatabase(getContext()).sensorLogDao();
+        AppDatabase db = AppDatabase.getDatabase(getContext());
+        logPager = new SensorLogPager(db, AppDirectory.getInstance(requireContext()), windowListener);
 
         setupRecyclerView();
-        observeLogs();
+        logPager.start(); // loads the newest page, then follows inserts at the head
 
         return view;
     }
 
-    private void setupRecyclerView() {
-        logAdapter = new SensorLogAdapter(new ArrayList<>());
-        logRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        logRecyclerView.setAdapter(logAdapter);
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (logPager != null) {
+            logPager.release();
+            logPager = null;
+        }
     }
 
-    private void observeLogs() {
-        // Observe the LiveData list from the database
-        sensorLogDao.getAllLogs().observe(getViewLifecycleOwner(), logEntries -> {
-            if (logEntries != null && !logEntries.isEmpty()) {
-                logAdapter.updateLogs(logEntries);
-                emptyStateTextView.setVisibility(View.GONE);
-                logRecyclerView.setVisibility(View.VISIBLE);
-            } else {
-                logAdapter.updateLogs(new ArrayList<>()); // Clear adapter
-                emptyStateTextView.setVisibility(View.VISIBLE);
-                logRecyclerView.setVisibility(View.GONE);
+    private void setupRecyclerView() {
+        // The adapter reads the pager's bounded window directly; changes arrive as ranges
+        logAdapter = new SensorLogAdapter(logPager.getWindow());
+        layoutManager = new LinearLayoutManager(getContext());
+        logRecyclerView.setLayoutManager(layoutManager);
+        logRecyclerView.setAdapter(logAdapter);
+        logRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (logPager == null) return;
+                logPager.onScrolled(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
             }
         });
     }
 
+    private final SensorLogPager.WindowListener windowListener = new SensorLogPager.WindowListener() {
+        @Override
+        public void onWindowReset() {
+            logAdapter.notifyDataSetChanged();
+            updateEmptyState();
+        }
+
+        @Override
+        public void onRowsInserted(int position, int count) {
+            boolean atTop = position == 0 && layoutManager.findFirstVisibleItemPosition() == 0;
+            logAdapter.notifyItemRangeInserted(position, count);
+            if (atTop) logRecyclerView.scrollToPosition(0); // keep showing the newest entry
+            updateEmptyState();
+        }
+
+        @Override
+        public void onRowsRemoved(int position, int count) {
+            logAdapter.notifyItemRangeRemoved(position, count);
+            updateEmptyState();
+        }
+    };
+
+    private void updateEmptyState() {
+        boolean empty = logAdapter.getItemCount() == 0;
+        emptyStateTextView.setVisibility(empty ? View.VISIBLE : View.GONE);
+        logRecyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
+    }
+
     private void confirmClearLogs() {
         // Simple confirmation dialog
         new android.app.AlertDialog.Builder(getContext())
@@ -78,16 +107,11 @@ public class SensorLogFragment extends Fragment {
     }
 
     private void clearAllLogs() {
-        // Run database operation on a background thread
-        Executors.newSingleThreadExecutor().execute(() -> {
-            // Delete logs older than 1 minute for simplicity in testing
-            long oneMinuteAgo = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
-            int deletedCount = sensorLogDao.deleteOldLogs(Long.MAX_VALUE); // Deletes all if max value
-
-            // Post result back to main thread
-            new Handler(Looper.getMainLooper()).post(() -> {
-                Toast.makeText(getContext(), deletedCount + " logs cleared.", Toast.LENGTH_SHORT).show();
-            });
+        if (logPager == null) return;
+        // Runs on the pager's query thread; its table observer reloads the emptied window
+        logPager.clearAll(deletedCount -> {
+            if (getContext() == null) return;
+            Toast.makeText(getContext(), deletedCount + " logs cleared.", Toast.LENGTH_SHORT).show();
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.example.guardianai;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * One hour of sensor history for one (package, sensor, alert flag), rolled up by
+ * SensorHistoryCompactor once the finer-grained rows age out.
+ */
+@Entity(tableName = "sensor_log_hourly",
+        primaryKeys = {"hour_start", "package_name", "sensor_type", "is_alert"},
+        indices = {@Index(value = {"package_name", "hour_start"})})
+public class SensorLogHourly {
+
+    @ColumnInfo(name = "hour_start")
+    public long hourStart; // bucket start (epoch ms)
+
+    @NonNull
+    @ColumnInfo(name = "package_name")
+    public String packageName;
+
+    @NonNull
+    @ColumnInfo(name = "sensor_type")
+    public String sensorType;
+
+    @ColumnInfo(name = "is_alert")
+    public boolean isAlert;
+
+    @ColumnInfo(name = "app_name")
+    public String appName;
+
+    @ColumnInfo(name = "event_count")
+    public int eventCount;
+
+    @ColumnInfo(name = "first_timestamp")
+    public long firstTimestamp;
+
+    @ColumnInfo(name = "last_timestamp")
+    public long lastTimestamp;
+
+    public SensorLogHourly(long hourStart, @NonNull String packageName, @NonNull String sensorType, boolean isAlert,
+                           String appName, int eventCount, long firstTimestamp, long lastTimestamp) {
+        this.hourStart = hourStart;
+        this.packageName = packageName;
+        this.sensorType = sensorType;
+        this.isAlert = isAlert;
+        this.appName = appName;
+        this.eventCount = eventCount;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+    }
+}
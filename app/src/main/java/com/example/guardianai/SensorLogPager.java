@@ -0,0 +1,219 @@
+package com.example.guardianai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * Keyset-paged, bounded window over sensor_logs (newest first).
+ *
+ * - Pages of PAGE_SIZE rows are read with (timestamp, id) cursors, so a page costs an index
+ *   range scan no matter how deep the user has scrolled.
+ * - At most MAX_WINDOW rows are held; scrolling down drops rows from the head, scrolling back
+ *   up reloads them (and drops rows from the tail).
+ * - When the table changes while the head is loaded, only the rows newer than the first one
+ *   are read and inserted at the head.
+ * - Rows are only ever deleted oldest first (retention, compaction, clear), so a change that
+ *   removed the window's last row shrank the table under the window: the window is reloaded.
+ *
+ * The window and listener callbacks are main-thread only; queries run on a private executor.
+ */
+public class SensorLogPager {
+
+    private static final String TAG = "SensorLogPager";
+    public static final int PAGE_SIZE = 50;
+    public static final int MAX_WINDOW = 4 * PAGE_SIZE;
+    public static final int PREFETCH_DISTANCE = 15;
+
+    /** Window changes, in adapter positions. */
+    public interface WindowListener {
+        void onWindowReset();
+        void onRowsInserted(int position, int count);
+        void onRowsRemoved(int position, int count);
+    }
+
+    private final AppDatabase db;
+    private final SensorLogDao dao;
+    private final AppDirectory appDirectory;
+    private final WindowListener listener;
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // --- Main-thread state ---
+    private final List<SensorLogEntry> window = new ArrayList<>();
+    private boolean headTrimmed = false;   // newer rows exist above the window
+    private boolean tailExhausted = false; // no older rows below the window
+    private boolean loadingOlder = false;
+    private boolean loadingNewer = false;
+    private int generation = 0;            // bumped by refresh(); stale loads are discarded
+    private boolean released = false;
+
+    private final InvalidationTracker.Observer tableObserver = new InvalidationTracker.Observer("sensor_logs") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            mainHandler.post(SensorLogPager.this::onTableChanged); // called on a Room background thread
+        }
+    };
+
+    public SensorLogPager(AppDatabase db, AppDirectory appDirectory, WindowListener listener) {
+        this.db = db;
+        this.dao = db.sensorLogDao();
+        this.appDirectory = appDirectory;
+        this.listener = listener;
+    }
+
+    /** Read-only view of the current window, for the adapter. */
+    public List<SensorLogEntry> getWindow() {
+        return Collections.unmodifiableList(window);
+    }
+
+    public void start() {
+        db.getInvalidationTracker().addObserver(tableObserver);
+        refresh();
+    }
+
+    public void release() {
+        released = true;
+        db.getInvalidationTracker().removeObserver(tableObserver);
+        dbExecutor.shutdown();
+    }
+
+    /** Drops the window and loads the newest page. */
+    public void refresh() {
+        if (released) return;
+        final int gen = ++generation;
+        loadingOlder = false;
+        loadingNewer = false;
+        dbExecutor.execute(() -> {
+            List<SensorLogEntry> rows = dao.getNewestPage(PAGE_SIZE);
+            appDirectory.resolveLogs(rows);
+            mainHandler.post(() -> {
+                if (released || gen != generation) return;
+                window.clear();
+                window.addAll(rows);
+                headTrimmed = false;
+                tailExhausted = rows.size() < PAGE_SIZE;
+                listener.onWindowReset();
+            });
+        });
+    }
+
+    /**
+     * Deletes every row on the query executor. The window is not touched here: the table
+     * observer sees the last row gone and reloads it. onDeleted gets the count on the main thread.
+     */
+    public void clearAll(IntConsumer onDeleted) {
+        if (released) return;
+        dbExecutor.execute(() -> {
+            int deleted = dao.deleteOldLogs(Long.MAX_VALUE);
+            mainHandler.post(() -> {
+                if (!released) onDeleted.accept(deleted);
+            });
+        });
+    }
+
+    /** Call from the RecyclerView scroll listener with the visible adapter positions. */
+    public void onScrolled(int firstVisible, int lastVisible) {
+        if (lastVisible >= window.size() - PREFETCH_DISTANCE) loadOlder();
+        if (headTrimmed && firstVisible <= PREFETCH_DISTANCE) loadNewer(false);
+    }
+
+    // --- Internal (main thread) ---
+    private void onTableChanged() {
+        if (released) return;
+        if (window.isEmpty()) {
+            refresh();
+            return;
+        }
+        final int gen = generation;
+        final SensorLogEntry last = window.get(window.size() - 1);
+        dbExecutor.execute(() -> {
+            boolean shrunk = !dao.exists(last.id); // primary-key lookup
+            mainHandler.post(() -> {
+                if (released || gen != generation) return;
+                if (shrunk) {
+                    refresh();
+                } else if (!headTrimmed) {
+                    loadNewer(true);
+                }
+                // With the head trimmed, new rows are picked up when the user scrolls back up
+            });
+        });
+    }
+
+    private void loadOlder() {
+        if (released || loadingOlder || tailExhausted || window.isEmpty()) return;
+        loadingOlder = true;
+        final int gen = generation;
+        final SensorLogEntry last = window.get(window.size() - 1);
+        dbExecutor.execute(() -> {
+            List<SensorLogEntry> rows = dao.getPageBefore(last.timestamp, last.id, PAGE_SIZE);
+            appDirectory.resolveLogs(rows);
+            mainHandler.post(() -> {
+                if (released || gen != generation) return;
+                loadingOlder = false;
+                if (rows.size() < PAGE_SIZE) tailExhausted = true;
+                if (rows.isEmpty()) return;
+                int position = window.size();
+                window.addAll(rows);
+                listener.onRowsInserted(position, rows.size());
+                trimHead();
+            });
+        });
+    }
+
+    private void loadNewer(boolean fromInvalidation) {
+        if (released || loadingNewer || window.isEmpty()) return;
+        loadingNewer = true;
+        final int gen = generation;
+        final SensorLogEntry first = window.get(0);
+        dbExecutor.execute(() -> {
+            List<SensorLogEntry> rows = dao.getPageAfter(first.timestamp, first.id, PAGE_SIZE); // oldest first
+            appDirectory.resolveLogs(rows);
+            mainHandler.post(() -> {
+                if (released || gen != generation) return;
+                loadingNewer = false;
+                if (fromInvalidation && rows.size() == PAGE_SIZE) {
+                    refresh(); // a burst larger than a page: jump straight to the newest rows
+                    return;
+                }
+                headTrimmed = rows.size() == PAGE_SIZE;
+                if (rows.isEmpty()) return;
+                Collections.reverse(rows);
+                window.addAll(0, rows);
+                listener.onRowsInserted(0, rows.size());
+                trimTail();
+            });
+        });
+    }
+
+    private void trimHead() {
+        int excess = window.size() - MAX_WINDOW;
+        if (excess <= 0) return;
+        window.subList(0, excess).clear();
+        headTrimmed = true;
+        listener.onRowsRemoved(0, excess);
+        Log.d(TAG, "Dropped " + excess + " rows from the head; window=" + window.size());
+    }
+
+    private void trimTail() {
+        int excess = window.size() - MAX_WINDOW;
+        if (excess <= 0) return;
+        int from = window.size() - excess;
+        window.subList(from, window.size()).clear();
+        tailExhausted = false;
+        listener.onRowsRemoved(from, excess);
+        Log.d(TAG, "Dropped " + excess + " rows from the tail; window=" + window.size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.guardianai;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded write-behind buffer for SensorLogEntry rows.
+ *
+ * Entries are collected in memory and written with one bulk insert (a single SQLite
+ * transaction) when either MAX_BATCH entries are waiting or FLUSH_DELAY_MS has passed since
+ * the first buffered entry. close() flushes whatever is left. If the buffer is full, new
+ * entries are dropped and counted rather than blocking the caller. Package names are turned
+ * into apps ids (AppDirectory) on the write thread, just before the insert.
+ */
+public class SensorLogWriter {
+
+    private static final String TAG = "SensorLogWriter";
+    public static final int DEFAULT_MAX_BATCH = 32;
+    public static final long DEFAULT_FLUSH_DELAY_MS = 2_000L;
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final SensorLogDao sensorLogDao;
+    private final AppDirectory appDirectory;
+    private final int maxBatch;
+    private final long flushDelayMs;
+    private final int capacity;
+    private final ScheduledExecutorService writeExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    private final Object lock = new Object();
+    private final List<SensorLogEntry> buffer = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean closed = false;
+
+    // --- Counters ---
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public SensorLogWriter(SensorLogDao sensorLogDao, AppDirectory appDirectory) {
+        this(sensorLogDao, appDirectory, DEFAULT_MAX_BATCH, DEFAULT_FLUSH_DELAY_MS, DEFAULT_CAPACITY);
+    }
+
+    public SensorLogWriter(SensorLogDao sensorLogDao, AppDirectory appDirectory, int maxBatch, long flushDelayMs, int capacity) {
+        this.sensorLogDao = sensorLogDao;
+        this.appDirectory = appDirectory;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.flushDelayMs = Math.max(0L, flushDelayMs);
+        this.capacity = Math.max(this.maxBatch, capacity);
+    }
+
+    /**
+     * Buffers an entry for the next bulk insert.
+     * @return false if the entry was dropped (buffer full or writer closed).
+     */
+    public boolean enqueue(SensorLogEntry entry) {
+        synchronized (lock) {
+            if (closed || buffer.size() >= capacity) {
+                droppedCount.incrementAndGet();
+                Log.w(TAG, "Dropping sensor log entry (" + (closed ? "closed" : "buffer full") + ").");
+                return false;
+            }
+            buffer.add(entry);
+            queuedCount.incrementAndGet();
+
+            if (buffer.size() >= maxBatch) {
+                scheduleFlushLocked(0L);
+            } else if (pendingFlush == null) {
+                scheduleFlushLocked(flushDelayMs);
+            }
+        }
+        return true;
+    }
+
+    /** Requests an immediate flush of everything buffered. */
+    public void flush() {
+        synchronized (lock) {
+            if (!writeExecutor.isShutdown()) scheduleFlushLocked(0L);
+        }
+    }
+
+    /** Flushes the remaining entries and stops accepting new ones. */
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            if (pendingFlush != null) pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        writeExecutor.execute(this::drainAndWrite);
+        writeExecutor.shutdown();
+        Log.d(TAG, "Closing. " + getStats());
+    }
+
+    public long getQueuedCount() { return queuedCount.get(); }
+    public long getFlushedCount() { return flushedCount.get(); }
+    public long getDroppedCount() { return droppedCount.get(); }
+    public long getBatchCount() { return batchCount.get(); }
+
+    public String getStats() {
+        return "queued=" + queuedCount.get() + ", flushed=" + flushedCount.get()
+                + ", dropped=" + droppedCount.get() + ", batches=" + batchCount.get();
+    }
+
+    // --- Internal ---
+    private void scheduleFlushLocked(long delayMs) {
+        if (pendingFlush != null) {
+            if (delayMs > 0) return; // a flush is already on its way
+            pendingFlush.cancel(false);
+        }
+        pendingFlush = writeExecutor.schedule(this::drainAndWrite, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void drainAndWrite() {
+        List<SensorLogEntry> batch;
+        synchronized (lock) {
+            pendingFlush = null;
+            if (buffer.isEmpty()) return;
+            batch = new ArrayList<>(buffer);
+            buffer.clear();
+        }
+        try {
+            for (SensorLogEntry entry : batch) {
+                entry.appId = appDirectory.idFor(entry.packageName, entry.appName);
+            }
+            sensorLogDao.insertLogEntries(batch); // one transaction for the whole batch
+            flushedCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+            Log.i(TAG, "Sensor logs flushed: " + batch.size() + " entries. " + getStats());
+        } catch (Exception e) {
+            droppedCount.addAndGet(batch.size());
+            Log.e(TAG, "Bulk insert of " + batch.size() + " sensor log entries failed", e);
+        }
+    }
+}
@@ -11,10 +11,51 @@ public class SensorMonitorManager {
     private static final String KEY_LOCATION = "isLocationMonitoringEnabled";
     private static final String KEY_CLIPBOARD = "isClipboardMonitoringEnabled";
 
+    // Notified (on the main thread) after the config snapshot was rebuilt
+    public interface OnConfigChangedListener {
+        void onConfigChanged(MonitoringConfig config);
+    }
+
     private SharedPreferences sharedPrefs;
+    private volatile MonitoringConfig config;
+    private OnConfigChangedListener configListener;
+
+    // Kept as a field: SharedPreferences only holds a weak reference to its listeners
+    private final SharedPreferences.OnSharedPreferenceChangeListener prefsListener = (prefs, key) -> {
+        if (KEY_MIC.equals(key) || KEY_CAMERA.equals(key) || KEY_LOCATION.equals(key) || KEY_CLIPBOARD.equals(key)) {
+            config = readConfig();
+            OnConfigChangedListener listener = configListener;
+            if (listener != null) listener.onConfigChanged(config);
+        }
+    };
 
     public SensorMonitorManager(Context context) {
         sharedPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        config = readConfig();
+        sharedPrefs.registerOnSharedPreferenceChangeListener(prefsListener);
+    }
+
+    /** Current toggles as an immutable snapshot (a single volatile read). */
+    public MonitoringConfig getConfig() {
+        return config;
+    }
+
+    public void setOnConfigChangedListener(OnConfigChangedListener listener) {
+        this.configListener = listener;
+    }
+
+    /** Stops listening for preference changes. */
+    public void release() {
+        configListener = null;
+        sharedPrefs.unregisterOnSharedPreferenceChangeListener(prefsListener);
+    }
+
+    private MonitoringConfig readConfig() {
+        return new MonitoringConfig(
+                sharedPrefs.getBoolean(KEY_CAMERA, true),
+                sharedPrefs.getBoolean(KEY_MIC, true),
+                sharedPrefs.getBoolean(KEY_LOCATION, true),
+                sharedPrefs.getBoolean(KEY_CLIPBOARD, true));
     }
 
     // --- MIC MONITORING ---
@@ -22,7 +63,7 @@ public class SensorMonitorManager {
         sharedPrefs.edit().putBoolean(KEY_MIC, isEnabled).apply();
     }
     public boolean isMicMonitoringEnabled() {
-        return sharedPrefs.getBoolean(KEY_MIC, true);
+        return config.micEnabled;
     }
 
     // --- CAMERA MONITORING ---
@@ -30,7 +71,7 @@ public class SensorMonitorManager {
         sharedPrefs.edit().putBoolean(KEY_CAMERA, isEnabled).apply();
     }
     public boolean isCameraMonitoringEnabled() {
-        return sharedPrefs.getBoolean(KEY_CAMERA, true);
+        return config.cameraEnabled;
     }
 
     // --- LOCATION MONITORING ---
@@ -38,7 +79,7 @@ public class SensorMonitorManager {
         sharedPrefs.edit().putBoolean(KEY_LOCATION, isEnabled).apply();
     }
     public boolean isLocationMonitoringEnabled() {
-        return sharedPrefs.getBoolean(KEY_LOCATION, true);
+        return config.locationEnabled;
     }
 
     // --- CLIPBOARD MONITORING ---
@@ -46,6 +87,6 @@ public class SensorMonitorManager {
         sharedPrefs.edit().putBoolean(KEY_CLIPBOARD, isEnabled).apply();
     }
     public boolean isClipboardMonitoringEnabled() {
-        return sharedPrefs.getBoolean(KEY_CLIPBOARD, true);
+        return config.clipboardEnabled;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.example.guardianai;
+
+/** One aggregated bucket produced by the roll-up queries in SensorHistoryDao. */
+public class SensorRollup {
+    public long bucketStart;
+    public String packageName;
+    public String sensorType;
+    public boolean isAlert;
+    public String appName;
+    public int eventCount;
+    public long firstTimestamp;
+    public long lastTimestamp;
+}
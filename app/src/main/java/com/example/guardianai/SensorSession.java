@@ -0,0 +1,83 @@
+package com.example.guardianai;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One continuous episode of an app using a sensor.
+ * Repeated observations of the same (package, sensor) are coalesced into a single row,
+ * so this table grows with real usage episodes rather than with the polling rate.
+ * The app is stored as an apps.id; packageName / appName are filled in by AppDirectory.
+ */
+@Entity(tableName = "sensor_sessions",
+        foreignKeys = {@ForeignKey(entity = AppIdentity.class, parentColumns = "id", childColumns = "app_id")},
+        indices = {@Index(value = {"app_id", "start_time"})})
+public class SensorSession {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    @ColumnInfo(name = "app_id")
+    public int appId;
+
+    @Ignore
+    public String packageName;
+
+    @Ignore
+    public String appName;
+
+    @ColumnInfo(name = "sensor_type")
+    public String sensorType; // "CAMERA", "MICROPHONE", "LOCATION"
+
+    @ColumnInfo(name = "start_time")
+    public long startTime;
+
+    @ColumnInfo(name = "end_time")
+    public long endTime; // Last time the access was observed (or the op went inactive)
+
+    @ColumnInfo(name = "duration_ms")
+    public long durationMs;
+
+    @ColumnInfo(name = "access_count")
+    public int accessCount; // Number of raw observations folded into this session
+
+    @ColumnInfo(name = "is_open")
+    public boolean isOpen;
+
+    public SensorSession(int appId, String sensorType, long startTime, long endTime, long durationMs, int accessCount, boolean isOpen) {
+        this.appId = appId;
+        this.sensorType = sensorType;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMs = durationMs;
+        this.accessCount = accessCount;
+        this.isOpen = isOpen;
+    }
+
+    @Ignore
+    public SensorSession(String packageName, String appName, String sensorType, long startTime, long endTime, long durationMs, int accessCount, boolean isOpen) {
+        this.packageName = packageName;
+        this.appName = appName;
+        this.sensorType = sensorType;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMs = durationMs;
+        this.accessCount = accessCount;
+        this.isOpen = isOpen;
+    }
+
+    public int getId() { return id; }
+    public int getAppId() { return appId; }
+    public String getPackageName() { return packageName; }
+    public String getAppName() { return appName; }
+    public String getSensorType() { return sensorType; }
+    public long getStartTime() { return startTime; }
+    public long getEndTime() { return endTime; }
+    public long getDurationMs() { return durationMs; }
+    public int getAccessCount() { return accessCount; }
+    public boolean isOpen() { return isOpen; }
+}
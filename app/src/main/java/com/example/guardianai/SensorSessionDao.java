@@ -0,0 +1,41 @@
+package com.example.guardianai;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public interface SensorSessionDao {
+
+    /** Inserts a newly opened session and returns its row id. */
+    @Insert
+    long insertSession(SensorSession session);
+
+    /** Writes the final (or extended) state of a session. */
+    @Update
+    void updateSession(SensorSession session);
+
+    /** Retrieves the most recent sessions, newest first. */
+    @Query("SELECT * FROM sensor_sessions ORDER BY start_time DESC LIMIT :limit")
+    LiveData<List<SensorSession>> getRecentSessions(int limit);
+
+    /** Retrieves sessions for one app, newest first (names via AppDirectory.resolveSessions()). */
+    @Query("SELECT * FROM sensor_sessions WHERE app_id = (SELECT id FROM apps WHERE package_name = :packageName) "
+            + "ORDER BY start_time DESC")
+    List<SensorSession> getSessionsForPackage(String packageName);
+
+    /**
+     * Closes sessions left open by a killed process. end_time holds the last checkpoint
+     * (SensorSessionizer.checkpoint), so the duration is recomputed from it.
+     */
+    @Query("UPDATE sensor_sessions SET is_open = 0, duration_ms = MAX(0, end_time - start_time) WHERE is_open = 1")
+    int closeDanglingSessions();
+
+    /** Clears old sessions (optional maintenance). */
+    @Query("DELETE FROM sensor_sessions WHERE end_time < :timestampCutoff")
+    int deleteOldSessions(long timestampCutoff);
+}
@@ -0,0 +1,202 @@
+package com.example.guardianai;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Turns raw sensor-access observations into sessions keyed by (package, sensor).
+ *
+ * - Polled observations (AppOps last-access times) extend the open session while they keep
+ *   arriving within SESSION_GAP_MS; a session with no new access for longer than that is closed
+ *   by closeIdle().
+ * - Event-driven sources (active-op / hardware callbacks) open a session on active=true and
+ *   close it on active=false.
+ *
+ * Each session costs one insert when it opens and one update when it closes, plus at most one
+ * checkpoint update per CHECKPOINT_MS while it stays open, so a session cut short by a process
+ * kill still has its last known end time on disk (see SensorSessionDao.closeDanglingSessions).
+ * observe()/onActive() return true only when a new session started, which is when the caller
+ * should write a SensorLogEntry.
+ */
+public class SensorSessionizer {
+
+    private static final String TAG = "SensorSessionizer";
+    public static final long SESSION_GAP_MS = 60_000L; // 1 min without new access ends a polled session
+    public static final long CHECKPOINT_MS = 60_000L;  // max age of the end time persisted for an open session
+
+    private static class OpenSession {
+        final String packageName;
+        final String sensorType;
+        final boolean eventDriven;
+        String appName;
+        long startTime;
+        long lastSeen;
+        int accessCount;
+        long rowId = -1; // assigned on the DB executor
+        int appId;       // apps.id, assigned on the DB executor with rowId
+        long persistedLastSeen;
+
+        OpenSession(String packageName, String appName, String sensorType, long startTime, boolean eventDriven) {
+            this.packageName = packageName;
+            this.appName = appName;
+            this.sensorType = sensorType;
+            this.startTime = startTime;
+            this.lastSeen = startTime;
+            this.persistedLastSeen = startTime;
+            this.accessCount = 1;
+            this.eventDriven = eventDriven;
+        }
+
+        SensorSession toEntity(boolean open) {
+            return new SensorSession(packageName, appName, sensorType, startTime, lastSeen,
+                    Math.max(0L, lastSeen - startTime), accessCount, open);
+        }
+    }
+
+    private final SensorSessionDao sessionDao;
+    private final AppDirectory appDirectory;
+    private final ExecutorService dbExecutor;
+    private final Map<String, OpenSession> openSessions = new HashMap<>();
+
+    public SensorSessionizer(SensorSessionDao sessionDao, AppDirectory appDirectory, ExecutorService dbExecutor) {
+        this.sessionDao = sessionDao;
+        this.appDirectory = appDirectory;
+        this.dbExecutor = dbExecutor;
+    }
+
+    /**
+     * Records a polled access observation.
+     * @param accessTime the access timestamp reported by the platform
+     * @return true if this observation started a new session
+     */
+    public synchronized boolean observe(String packageName, String appName, String sensorType, long accessTime) {
+        String key = key(packageName, sensorType);
+        OpenSession session = openSessions.get(key);
+        if (session != null) {
+            if (accessTime <= session.lastSeen) return false; // same access seen again by a later tick
+            if (session.eventDriven || accessTime - session.lastSeen <= SESSION_GAP_MS) {
+                session.lastSeen = accessTime;
+                session.accessCount++;
+                return false;
+            }
+            close(key, session);
+        }
+        open(key, new OpenSession(packageName, appName, sensorType, accessTime, false));
+        return true;
+    }
+
+    /**
+     * Records an active/inactive transition from an event-driven source.
+     * @return true if this event started a new session
+     */
+    public synchronized boolean onActive(String packageName, String appName, String sensorType, long timestamp, boolean active) {
+        String key = key(packageName, sensorType);
+        OpenSession session = openSessions.get(key);
+        if (active) {
+            if (session != null) {
+                session.lastSeen = Math.max(session.lastSeen, timestamp);
+                session.accessCount++;
+                return false;
+            }
+            open(key, new OpenSession(packageName, appName, sensorType, timestamp, true));
+            return true;
+        }
+        if (session != null) {
+            session.lastSeen = Math.max(session.lastSeen, timestamp);
+            close(key, session);
+        }
+        return false;
+    }
+
+    /** Closes polled sessions that have not seen an access for longer than the gap. */
+    public synchronized void closeIdle(long now) {
+        List<String> idle = new ArrayList<>();
+        for (Map.Entry<String, OpenSession> entry : openSessions.entrySet()) {
+            OpenSession session = entry.getValue();
+            if (!session.eventDriven && now - session.lastSeen > SESSION_GAP_MS) idle.add(entry.getKey());
+        }
+        for (String key : idle) close(key, openSessions.get(key));
+    }
+
+    /**
+     * Persists the end time of open sessions whose stored copy is more than CHECKPOINT_MS old.
+     * Event-driven sessions are still active, so they are extended to now first.
+     */
+    public synchronized void checkpoint(long now) {
+        for (OpenSession session : openSessions.values()) {
+            if (session.eventDriven) session.lastSeen = Math.max(session.lastSeen, now);
+            if (session.lastSeen - session.persistedLastSeen < CHECKPOINT_MS) continue;
+            session.persistedLastSeen = session.lastSeen;
+            persist(session, true);
+        }
+    }
+
+    /** Closes every open session (service shutdown). */
+    public synchronized void closeAll(long now) {
+        Iterator<Map.Entry<String, OpenSession>> it = openSessions.entrySet().iterator();
+        while (it.hasNext()) {
+            OpenSession session = it.next().getValue();
+            if (session.eventDriven) session.lastSeen = Math.max(session.lastSeen, now);
+            persist(session, false);
+            it.remove();
+        }
+    }
+
+    public synchronized boolean hasOpenSessions() {
+        return !openSessions.isEmpty();
+    }
+
+    public synchronized boolean hasOpenSession(String sensorType) {
+        for (OpenSession session : openSessions.values()) {
+            if (session.sensorType.equals(sensorType)) return true;
+        }
+        return false;
+    }
+
+    // --- Internal ---
+    private void open(String key, OpenSession session) {
+        openSessions.put(key, session);
+        SensorSession row = session.toEntity(true);
+        dbExecutor.execute(() -> {
+            try {
+                session.appId = appDirectory.idFor(row.packageName, row.appName);
+                row.appId = session.appId;
+                session.rowId = sessionDao.insertSession(row);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to insert session for " + session.packageName, e);
+            }
+        });
+        Log.d(TAG, "Session opened: " + session.sensorType + " by " + session.packageName);
+    }
+
+    private void close(String key, OpenSession session) {
+        openSessions.remove(key);
+        persist(session, false);
+        Log.d(TAG, "Session closed: " + session.sensorType + " by " + session.packageName
+                + " (" + (session.lastSeen - session.startTime) + " ms, " + session.accessCount + " accesses)");
+    }
+
+    private void persist(OpenSession session, boolean open) {
+        SensorSession row = session.toEntity(open);
+        dbExecutor.execute(() -> {
+            if (session.rowId < 0) return; // insert failed; nothing to update
+            row.id = (int) session.rowId;
+            row.appId = session.appId;
+            try {
+                sessionDao.updateSession(row);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to close session for " + session.packageName, e);
+            }
+        });
+    }
+
+    private static String key(String packageName, String sensorType) {
+        return packageName + '|' + sensorType;
+    }
+}
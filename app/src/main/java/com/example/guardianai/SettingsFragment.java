@@ -9,6 +9,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -21,9 +22,12 @@ public class SettingsFragment extends Fragment {
     public static final String PREFS_NAME = "GuardianAIPrefs"; // Consistent prefs name
     public static final String KEY_UNUSED_THRESHOLD_DAYS = "unused_app_threshold_days";
     public static final int DEFAULT_UNUSED_THRESHOLD_DAYS = 30; // Default value
+    public static final String KEY_CADENCE_POLICY = "monitoring_cadence_policy"; // CadenceController.Policy name
 
     private RadioGroup radioGroupThreshold;
     private RadioButton radio30Days, radio60Days, radio90Days;
+    private RadioGroup radioGroupCadence;
+    private TextView textCadenceWakeups;
     private SharedPreferences sharedPreferences;
 
     @Nullable
@@ -56,6 +60,20 @@ public class SettingsFragment extends Fragment {
             saveSetting(selectedDays);
         });
 
+        // Monitoring cadence policy (read by CadenceController in MonitoringService)
+        radioGroupCadence = view.findViewById(R.id.radio_group_cadence_policy);
+        textCadenceWakeups = view.findViewById(R.id.text_cadence_wakeups);
+        loadCadencePolicy();
+        radioGroupCadence.setOnCheckedChangeListener((group, checkedId) -> {
+            CadenceController.Policy policy = CadenceController.Policy.BALANCED;
+            if (checkedId == R.id.radio_cadence_battery_saver) {
+                policy = CadenceController.Policy.BATTERY_SAVER;
+            } else if (checkedId == R.id.radio_cadence_paranoid) {
+                policy = CadenceController.Policy.PARANOID;
+            }
+            saveCadencePolicy(policy);
+        });
+
         return view;
     }
 
@@ -72,6 +90,29 @@ public class SettingsFragment extends Fragment {
         }
     }
 
+    private void loadCadencePolicy() {
+        CadenceController.Policy policy = CadenceController.getPolicy(requireContext());
+        if (policy == CadenceController.Policy.BATTERY_SAVER) {
+            radioGroupCadence.check(R.id.radio_cadence_battery_saver);
+        } else if (policy == CadenceController.Policy.PARANOID) {
+            radioGroupCadence.check(R.id.radio_cadence_paranoid);
+        } else {
+            radioGroupCadence.check(R.id.radio_cadence_balanced);
+        }
+        showWakeupEstimate(policy);
+    }
+
+    private void saveCadencePolicy(CadenceController.Policy policy) {
+        sharedPreferences.edit().putString(KEY_CADENCE_POLICY, policy.name()).apply();
+        Log.d(TAG, "Saved cadence policy: " + policy);
+        showWakeupEstimate(policy);
+    }
+
+    private void showWakeupEstimate(CadenceController.Policy policy) {
+        textCadenceWakeups.setText("About " + policy.baselineWakeupsPerHour()
+                + " checks per hour while the screen is on, fewer when it is off.");
+    }
+
     private void saveSetting(int days) {
         SharedPreferences.Editor editor = sharedPreferences.edit();
         editor.putInt(KEY_UNUSED_THRESHOLD_DAYS, days);
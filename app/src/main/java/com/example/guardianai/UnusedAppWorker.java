@@ -80,10 +80,10 @@ public class UnusedAppWorker extends Worker {
             return Result.failure(); // Indicate failure if stats are unavailable
         }
 
-        // --- Get Installed Apps ---
+        // --- Get Installed Apps (shared package index) ---
         List<PackageInfo> installedApps;
         try {
-            installedApps = pm.getInstalledPackages(PackageManager.GET_PERMISSIONS | PackageManager.GET_META_DATA);
+            installedApps = PackageIndex.getInstance(context).getSnapshot().getPackages();
         } catch (Exception e) {
             Log.e(TAG, "Failed to get installed packages", e);
             return Result.failure(); // Cannot proceed without the app list
@@ -130,7 +130,7 @@ public class UnusedAppWorker extends Worker {
 
                             // --- SAVE Recommendation to DB ---
                             try {
-                                String appName = pkgInfo.applicationInfo.loadLabel(pm).toString();
+                                String appName = AppLabelCache.getInstance(context).getLabel(pkgInfo);
                                 // Create a user-friendly description
                                 String description = "Review unused permissions for '" + appName + "'";
                                 Recommendation rec = new Recommendation(
@@ -139,6 +139,7 @@ public class UnusedAppWorker extends Worker {
                                         RECOMMENDATION_TYPE_UNUSED,// Type identifier
                                         packageName                // Associated package name for click action
                                 );
+                                rec.associatedAppId = AppDirectory.getInstance(context).idFor(packageName, appName);
                                 recommendationDao.insertRecommendation(rec); // Insert into DB
                                 unusedRiskyFoundCount++; // Increment count
                             } catch (Exception dbException) {
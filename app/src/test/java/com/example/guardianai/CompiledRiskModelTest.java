@@ -0,0 +1,124 @@
+package com.example.guardianai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The interned-id path used by PermissionScanEngine must produce the same bitsets as looking
+ * every permission up by name, and combinations must raise the overall risk to their level.
+ * The shipped rule file is read from src/main/assets (unit tests run in the module directory).
+ */
+public class CompiledRiskModelTest {
+
+    private static final String[] REQUESTED = {
+            "android.permission.CAMERA",
+            "com.example.CUSTOM_PERMISSION",
+            "android.permission.INTERNET",
+            "android.permission.ACCESS_FINE_LOCATION",
+            "android.permission.READ_SMS",
+            "android.permission.VIBRATE"
+    };
+
+    private static final String SHIPPED_RULES = "src/main/assets/" + RiskRuleLoader.RULES_FILE;
+
+    private final CompiledRiskModel model = PermissionAnalyzer.compileDefaultModel();
+
+    @Test
+    public void requestedIds_matchIdOf() {
+        int[] ids = model.requestedIds("pkg", 1L, REQUESTED);
+        assertEquals(REQUESTED.length, ids.length);
+        for (int i = 0; i < REQUESTED.length; i++) {
+            assertEquals(REQUESTED[i], model.idOf(REQUESTED[i]), ids[i]);
+        }
+        assertEquals(-1, ids[1]);
+    }
+
+    @Test
+    public void requestedIds_internedPerPackageVersion() {
+        int[] first = model.requestedIds("pkg", 1L, REQUESTED);
+        assertSame(first, model.requestedIds("pkg", 1L, REQUESTED.clone()));
+        // An update may change the requested permissions, so it is interned again
+        assertNotSame(first, model.requestedIds("pkg", 2L, REQUESTED));
+        assertNotSame(first, model.requestedIds("other", 1L, REQUESTED));
+    }
+
+    @Test
+    public void bitsetsFromIds_equalBitsetsFromNames() {
+        Random random = new Random(42);
+        int[] ids = model.requestedIds("pkg", 1L, REQUESTED);
+        for (int round = 0; round < 200; round++) {
+            long[] byName = model.newBitset();
+            long[] byId = model.newBitset();
+            for (int i = 0; i < REQUESTED.length; i++) {
+                if (!random.nextBoolean()) continue;
+                model.add(byName, REQUESTED[i]);
+                model.add(byId, ids[i]);
+            }
+            assertArrayEquals(byName, byId);
+            assertEquals(model.highestRisk(byName), model.highestRisk(byId));
+        }
+    }
+
+    @Test
+    public void highestRisk_raisedByCompleteCombination() {
+        Map<String, PermissionAnalyzer.RiskLevel> rules = new LinkedHashMap<>();
+        rules.put("a", PermissionAnalyzer.RiskLevel.LOW);
+        rules.put("b", PermissionAnalyzer.RiskLevel.LOW);
+        Map<String, String[]> combinations = new LinkedHashMap<>();
+        combinations.put("a+b", new String[] {"a", "b"});
+        combinations.put("a+unlisted", new String[] {"a", "unlisted"});
+        Map<String, PermissionAnalyzer.RiskLevel> levels =
+                Collections.singletonMap("a+b", PermissionAnalyzer.RiskLevel.MEDIUM);
+        CompiledRiskModel m = new CompiledRiskModel(rules, combinations, levels);
+
+        assertEquals(PermissionAnalyzer.RiskLevel.LOW, m.highestRisk(m.maskOf("a")));
+        assertEquals(PermissionAnalyzer.RiskLevel.MEDIUM, m.highestRisk(m.maskOf("a", "b")));
+        // A permission that is only named by a combination still has an id (and NO_RISK on its own)
+        assertEquals(PermissionAnalyzer.RiskLevel.NO_RISK, m.riskOf("unlisted"));
+        assertEquals(PermissionAnalyzer.RiskLevel.NO_RISK, m.highestRisk(m.maskOf("unlisted")));
+        assertEquals(PermissionAnalyzer.RiskLevel.HIGH, m.highestRisk(m.maskOf("a", "unlisted")));
+    }
+
+    @Test
+    public void builtInTable_locationOnlineIsHigh() {
+        assertEquals(PermissionAnalyzer.RiskLevel.MEDIUM,
+                model.highestRisk(model.maskOf("android.permission.ACCESS_FINE_LOCATION")));
+        assertEquals(PermissionAnalyzer.RiskLevel.HIGH, model.highestRisk(model.maskOf(
+                "android.permission.ACCESS_FINE_LOCATION", "android.permission.INTERNET")));
+    }
+
+    @Test
+    public void shippedRules_combinationsRaiseMediumAndLowApps() throws IOException {
+        CompiledRiskModel shipped;
+        try (Reader reader = new InputStreamReader(new FileInputStream(SHIPPED_RULES), StandardCharsets.UTF_8)) {
+            shipped = RiskRuleLoader.compile(RiskRuleLoader.parse(reader));
+        }
+        String internet = "android.permission.INTERNET";
+        assertEquals(PermissionAnalyzer.RiskLevel.LOW, shipped.highestRisk(shipped.maskOf(internet)));
+        assertEquals(PermissionAnalyzer.RiskLevel.MEDIUM,
+                shipped.highestRisk(shipped.maskOf("android.permission.QUERY_ALL_PACKAGES")));
+        assertEquals(PermissionAnalyzer.RiskLevel.HIGH,
+                shipped.highestRisk(shipped.maskOf("android.permission.QUERY_ALL_PACKAGES", internet)));
+        assertEquals(PermissionAnalyzer.RiskLevel.HIGH,
+                shipped.highestRisk(shipped.maskOf("android.permission.READ_PHONE_STATE", internet)));
+        // LOW + LOW + LOW -> MEDIUM, but only once all three are held
+        assertEquals(PermissionAnalyzer.RiskLevel.LOW,
+                shipped.highestRisk(shipped.maskOf("android.permission.BLUETOOTH_CONNECT", internet)));
+        assertEquals(PermissionAnalyzer.RiskLevel.MEDIUM, shipped.highestRisk(shipped.maskOf(
+                "android.permission.BLUETOOTH_CONNECT", internet, "android.permission.ACCESS_NETWORK_STATE")));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.guardianai;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Plain-JVM timing of the per-app risk evaluation: the original string switch over each
+ * granted permission against CompiledRiskModel's interned ids and bitsets, on 500 synthetic
+ * apps with 40 requested permissions each. Both paths must agree on every app; the ns/app
+ * figures are printed (run with --info to see them) and are not asserted, so a slow CI
+ * machine cannot fail the build.
+ */
+public class RiskModelBenchmarkTest {
+
+    private static final int APPS = 500;
+    private static final int PERMISSIONS_PER_APP = 40;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    /** One synthetic package: what a scan reads from PackageInfo. */
+    private static final class App {
+        final String packageName;
+        final long lastUpdateTime;
+        final String[] requested;
+        final boolean[] granted;
+
+        App(String packageName, long lastUpdateTime, String[] requested, boolean[] granted) {
+            this.packageName = packageName;
+            this.lastUpdateTime = lastUpdateTime;
+            this.requested = requested;
+            this.granted = granted;
+        }
+    }
+
+    @Test
+    public void switchVsCompiled_500Apps40Permissions() {
+        App[] apps = syntheticApps(new Random(7));
+        // Same table as the switch, without combinations, so the two paths must agree
+        CompiledRiskModel model = new CompiledRiskModel(tableRules(), null);
+
+        PermissionAnalyzer.RiskLevel[] bySwitch = new PermissionAnalyzer.RiskLevel[APPS];
+        PermissionAnalyzer.RiskLevel[] byIds = new PermissionAnalyzer.RiskLevel[APPS];
+        for (int i = 0; i < WARMUP; i++) {
+            runSwitch(apps, bySwitch);
+            runCompiled(model, apps, byIds);
+        }
+
+        long switchNs = 0;
+        long compiledNs = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            runSwitch(apps, bySwitch);
+            switchNs += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runCompiled(model, apps, byIds);
+            compiledNs += System.nanoTime() - start;
+        }
+
+        for (int i = 0; i < APPS; i++) {
+            assertEquals(apps[i].packageName, bySwitch[i], byIds[i]);
+        }
+        long switchPerApp = switchNs / ((long) ROUNDS * APPS);
+        long compiledPerApp = compiledNs / ((long) ROUNDS * APPS);
+        System.out.println("RiskModelBenchmark " + APPS + " apps x " + PERMISSIONS_PER_APP + " permissions: switch "
+                + switchPerApp + " ns/app, compiled ids+bitsets " + compiledPerApp + " ns/app ("
+                + String.format(java.util.Locale.ROOT, "%.1fx", (double) switchNs / Math.max(1, compiledNs)) + ")");
+    }
+
+    // --- Paths under test ---
+    /** What the scan did before CompiledRiskModel: one string switch per granted permission. */
+    private static void runSwitch(App[] apps, PermissionAnalyzer.RiskLevel[] out) {
+        for (int a = 0; a < apps.length; a++) {
+            App app = apps[a];
+            PermissionAnalyzer.RiskLevel highest = PermissionAnalyzer.RiskLevel.NO_RISK;
+            for (int i = 0; i < app.requested.length; i++) {
+                if (!app.granted[i]) continue;
+                PermissionAnalyzer.RiskLevel risk = switchRisk(app.requested[i]);
+                if (risk.ordinal() < highest.ordinal()) highest = risk;
+            }
+            out[a] = highest;
+        }
+    }
+
+    /** What PermissionScanEngine.scanPackage does: interned ids, a bitset and mask ANDs. */
+    private static void runCompiled(CompiledRiskModel model, App[] apps, PermissionAnalyzer.RiskLevel[] out) {
+        for (int a = 0; a < apps.length; a++) {
+            App app = apps[a];
+            int[] ids = model.requestedIds(app.packageName, app.lastUpdateTime, app.requested);
+            long[] bits = model.newBitset();
+            for (int i = 0; i < ids.length; i++) {
+                if (app.granted[i]) model.add(bits, ids[i]);
+            }
+            out[a] = model.highestRisk(bits);
+        }
+    }
+
+    /** PermissionAnalyzer.getPermissionRisk() as it was before the table was compiled. */
+    private static PermissionAnalyzer.RiskLevel switchRisk(String permission) {
+        if (permission == null) return PermissionAnalyzer.RiskLevel.NO_RISK;
+        switch (permission) {
+            case "android.permission.READ_CONTACTS":
+            case "android.permission.WRITE_CONTACTS":
+            case "android.permission.READ_SMS":
+            case "android.permission.SEND_SMS":
+            case "android.permission.RECEIVE_SMS":
+            case "android.permission.CAMERA":
+            case "android.permission.RECORD_AUDIO":
+            case "android.permission.READ_CALENDAR":
+            case "android.permission.WRITE_CALENDAR":
+            case "android.permission.BIND_ACCESSIBILITY_SERVICE":
+            case "android.permission.READ_CALL_LOG":
+            case "android.permission.PROCESS_OUTGOING_CALLS":
+            case "android.permission.REQUEST_INSTALL_PACKAGES":
+                return PermissionAnalyzer.RiskLevel.HIGH;
+            case "android.permission.ACCESS_FINE_LOCATION":
+            case "android.permission.ACCESS_COARSE_LOCATION":
+            case "android.permission.READ_EXTERNAL_STORAGE":
+            case "android.permission.WRITE_EXTERNAL_STORAGE":
+            case "android.permission.GET_ACCOUNTS":
+            case "android.permission.READ_PHONE_STATE":
+                return PermissionAnalyzer.RiskLevel.MEDIUM;
+            case "android.permission.INTERNET":
+            case "android.permission.ACCESS_NETWORK_STATE":
+            case "android.permission.BLUETOOTH":
+            case "android.permission.VIBRATE":
+            case "android.permission.WAKE_LOCK":
+                return PermissionAnalyzer.RiskLevel.LOW;
+            default:
+                return PermissionAnalyzer.RiskLevel.NO_RISK;
+        }
+    }
+
+    // --- Data ---
+    private static Map<String, PermissionAnalyzer.RiskLevel> tableRules() {
+        Map<String, PermissionAnalyzer.RiskLevel> rules = new LinkedHashMap<>();
+        for (String p : PermissionAnalyzer.HIGH_RISK_PERMISSIONS) rules.put(p, PermissionAnalyzer.RiskLevel.HIGH);
+        for (String p : PermissionAnalyzer.MEDIUM_RISK_PERMISSIONS) rules.put(p, PermissionAnalyzer.RiskLevel.MEDIUM);
+        for (String p : PermissionAnalyzer.LOW_RISK_PERMISSIONS) rules.put(p, PermissionAnalyzer.RiskLevel.LOW);
+        return rules;
+    }
+
+    /**
+     * Apps request a mix of ruled permissions and ones without a rule (other framework
+     * permissions and app-defined ones), about half of them granted.
+     */
+    private static App[] syntheticApps(Random random) {
+        Map<String, PermissionAnalyzer.RiskLevel> rules = tableRules();
+        String[] ruled = rules.keySet().toArray(new String[0]);
+        String[] unruled = new String[60];
+        for (int i = 0; i < unruled.length; i++) {
+            unruled[i] = i % 2 == 0 ? "android.permission.UNRULED_" + i : "com.vendor.lib" + i + ".permission.C2D_MESSAGE";
+        }
+
+        App[] apps = new App[APPS];
+        for (int a = 0; a < APPS; a++) {
+            String[] requested = new String[PERMISSIONS_PER_APP];
+            boolean[] granted = new boolean[PERMISSIONS_PER_APP];
+            for (int i = 0; i < PERMISSIONS_PER_APP; i++) {
+                requested[i] = random.nextInt(6) == 0
+                        ? ruled[random.nextInt(ruled.length)] : unruled[random.nextInt(unruled.length)];
+                granted[i] = random.nextBoolean();
+            }
+            apps[a] = new App("com.example.app" + a, a, requested, granted);
+        }
+        return apps;
+    }
+}
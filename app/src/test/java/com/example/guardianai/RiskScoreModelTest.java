@@ -0,0 +1,133 @@
+package com.example.guardianai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.pm.PackageInfo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applying install/update/remove deltas to a seeded RiskScoreModel must end in the same state
+ * as reset() on a full snapshot of the resulting app set, and concurrent changes must reach
+ * listeners in order.
+ */
+public class RiskScoreModelTest {
+
+    private static final PermissionAnalyzer.RiskLevel[] LEVELS = PermissionAnalyzer.RiskLevel.values();
+
+    @Test
+    public void deltasMatchFullReset() {
+        Random random = new Random(7);
+        Map<String, PermissionAnalyzer.RiskLevel> apps = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) apps.put("pkg" + i, LEVELS[random.nextInt(LEVELS.length)]);
+
+        RiskScoreModel incremental = new RiskScoreModel();
+        incremental.reset(snapshotOf(apps));
+        for (int step = 0; step < 500; step++) {
+            String pkg = "pkg" + random.nextInt(80); // some steps install new packages
+            if (random.nextInt(4) == 0) {
+                apps.remove(pkg);
+                incremental.remove(pkg);
+            } else {
+                PermissionAnalyzer.RiskLevel level = LEVELS[random.nextInt(LEVELS.length)];
+                apps.put(pkg, level);
+                incremental.update(pkg, level);
+            }
+
+            RiskScoreModel full = new RiskScoreModel();
+            full.reset(snapshotOf(apps));
+            assertSameState("step " + step, full, incremental);
+        }
+    }
+
+    @Test
+    public void deltasBeforeFirstResetAreIgnored() {
+        RiskScoreModel model = new RiskScoreModel();
+        model.update("pkg", PermissionAnalyzer.RiskLevel.HIGH);
+        model.remove("pkg");
+        assertNull(model.getScore());
+        assertNull(model.getCategorizedApps());
+    }
+
+    @Test
+    public void concurrentDeltasArePublishedInOrder() throws InterruptedException {
+        RiskScoreModel model = new RiskScoreModel();
+        model.reset(snapshotOf(new LinkedHashMap<>()));
+        AtomicLong lastSeen = new AtomicLong(-1);
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        model.addListener(score -> {
+            if (score.sequence <= lastSeen.getAndSet(score.sequence)) errors.add("went back to " + score.sequence);
+        });
+
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(id);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 2000; i++) {
+                    String pkg = "pkg" + random.nextInt(40);
+                    if (random.nextInt(4) == 0) model.remove(pkg);
+                    else model.update(pkg, LEVELS[random.nextInt(LEVELS.length)]);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        // The last change has the highest sequence, so it is never dropped
+        assertEquals(model.getScore().sequence, lastSeen.get());
+    }
+
+    private static void assertSameState(String label, RiskScoreModel expected, RiskScoreModel actual) {
+        RiskScoreModel.Score want = expected.getScore();
+        RiskScoreModel.Score got = actual.getScore();
+        assertEquals(label, want.score, got.score);
+        assertEquals(label, want.highRiskCount, got.highRiskCount);
+        assertEquals(label, want.mediumRiskCount, got.mediumRiskCount);
+        assertEquals(label, want.lowRiskCount, got.lowRiskCount);
+        assertEquals(label, want.noRiskCount, got.noRiskCount);
+        assertEquals(label, want.totalApps, got.totalApps);
+        Map<PermissionAnalyzer.RiskLevel, List<String>> wantApps = expected.getCategorizedApps();
+        Map<PermissionAnalyzer.RiskLevel, List<String>> gotApps = actual.getCategorizedApps();
+        for (PermissionAnalyzer.RiskLevel level : LEVELS) {
+            assertEquals(label + " / " + level, new HashSet<>(wantApps.get(level)), new HashSet<>(gotApps.get(level)));
+        }
+    }
+
+    private static ScanSnapshot snapshotOf(Map<String, PermissionAnalyzer.RiskLevel> apps) {
+        List<ScanSnapshot.AppEntry> entries = new ArrayList<>();
+        EnumMap<PermissionAnalyzer.RiskLevel, List<String>> byRisk = new EnumMap<>(PermissionAnalyzer.RiskLevel.class);
+        for (PermissionAnalyzer.RiskLevel level : LEVELS) byRisk.put(level, new ArrayList<>());
+        for (Map.Entry<String, PermissionAnalyzer.RiskLevel> app : apps.entrySet()) {
+            PackageInfo info = new PackageInfo();
+            info.packageName = app.getKey();
+            entries.add(new ScanSnapshot.AppEntry(info, app.getValue(), new ArrayList<>(), "", new long[1]));
+            byRisk.get(app.getValue()).add(app.getKey());
+        }
+        return new ScanSnapshot(entries, byRisk, new HashMap<>(), 0L);
+    }
+}